@@ -1,6 +1,32 @@
 from catboost import CatBoostClassifier
+import onnx
+from onnx import helper, TensorProto
 
-model = CatBoostClassifier()
-model.load_model("P:\\PROJECTS\\saved_models\\voice\\catboost_model.cbm")
 
-model.save_model("voice_model.onnx", format="onnx")
\ No newline at end of file
+def strip_zipmap(onnx_path: str):
+    """Убрать ZipMap с выхода модели CatBoost и вывести тензор вероятностей float [N, 2] напрямую.
+    Тогда ONNX Runtime не собирает Java-словарь на каждую строку, а приложение читает вероятности из тензора.
+    """
+    model = onnx.load(onnx_path)
+    graph = model.graph
+    for node in [n for n in graph.node if n.op_type == "ZipMap"]:
+        probability_tensor = node.input[0]
+        zipmap_output = node.output[0]
+        graph.node.remove(node)
+        for output in [o for o in graph.output if o.name == zipmap_output]:
+            graph.output.remove(output)
+        graph.output.append(helper.make_tensor_value_info(probability_tensor, TensorProto.FLOAT, [None, 2]))
+    onnx.checker.check_model(model)
+    onnx.save(model, onnx_path)
+
+
+# Обе модели приложения: ONNX для ParkinsonOnnxPredictor и JSON-выгрузка той же модели
+# для Java-реализации деревьев (CatBoostTreePredictor, переключатель в настройках)
+if __name__ == "__main__":
+    for name in ("voice", "speech"):
+        model = CatBoostClassifier()
+        model.load_model(f"P:\\PROJECTS\\saved_models\\{name}\\catboost_model.cbm")
+
+        model.save_model(f"{name}_model.onnx", format="onnx")
+        strip_zipmap(f"{name}_model.onnx")
+        model.save_model(f"{name}_model.json", format="json")
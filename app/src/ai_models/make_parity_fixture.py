@@ -0,0 +1,73 @@
+import json
+import os
+
+import numpy as np
+from catboost import CatBoostClassifier
+
+from catboost_onnx_converter import strip_zipmap
+
+# Небольшая модель CatBoost для теста CatBoostOnnxParityTest (модуль benchmark): обе выгрузки делает сам CatBoost,
+# а эталонные вероятности считает CatBoost.predict_proba — так проверяется, что CatBoostTreePredictor и ONNX
+# Runtime понимают выгрузку так же, как CatBoost (направление сравнения с порогом, порядок битов листа, масштаб).
+# Запуск из app/src/ai_models: python make_parity_fixture.py; результат коммитится вместе с тестом.
+FEATURES = ["F2", "F1", "SHIMMER_LOCAL", "JITTER_PPQ5", "F0_RANGE", "INTENSITY_RANGE", "HNR"]
+# Порядок величины признаков голосовой модели (как в ParkinsonOnnxPredictor.ModelType.VOICE)
+TYPICAL = np.array([1544.0, 612.0, 0.034, 0.0031, 48.7, 21.3, 19.8])
+OUT_DIR = os.path.join(os.path.dirname(os.path.abspath(__file__)),
+                       "..", "..", "..", "benchmark", "src", "test", "resources", "catboost_fixture")
+
+
+def make_rows(count, rng):
+    """Признаки в масштабе реальной модели; во float32, как их передаёт приложение."""
+    return (TYPICAL * (1.0 + 0.5 * rng.uniform(-1.0, 1.0, size=(count, len(FEATURES))))).astype(np.float32)
+
+
+def border_rows(model_json, base, per_feature=3):
+    """Строки, где признак равен порогу сплита точно: различают «x > border» и «x >= border»."""
+    rows = []
+    for info in model_json["features_info"]["float_features"]:
+        feature = info["flat_feature_index"]
+        for i, border in enumerate(info.get("borders") or []):
+            if i >= per_feature:
+                break
+            row = base[len(rows) % len(base)].copy()
+            row[feature] = np.float32(border)
+            rows.append(row)
+    return np.array(rows, dtype=np.float32).reshape(-1, len(FEATURES))
+
+
+def main():
+    rng = np.random.default_rng(7)
+    train = make_rows(400, rng)
+    # Синтетическая целевая переменная: важны несколько признаков, есть шум
+    score = (train[:, 5] / TYPICAL[5] + train[:, 2] / TYPICAL[2] - train[:, 6] / TYPICAL[6]
+             + rng.normal(0.0, 0.3, size=len(train)))
+    labels = (score > 1.0).astype(int)
+
+    model = CatBoostClassifier(iterations=12, depth=3, border_count=16, learning_rate=0.3,
+                               random_seed=0, verbose=0)
+    model.fit(train, labels)
+
+    os.makedirs(OUT_DIR, exist_ok=True)
+    onnx_path = os.path.join(OUT_DIR, "fixture_model.onnx")
+    json_path = os.path.join(OUT_DIR, "fixture_model.json")
+    model.save_model(onnx_path, format="onnx")
+    strip_zipmap(onnx_path)
+    model.save_model(json_path, format="json")
+
+    with open(json_path, encoding="utf-8") as f:
+        exported = json.load(f)
+    test = make_rows(32, rng)
+    rows = np.concatenate([test, border_rows(exported, test)])
+    probabilities = model.predict_proba(rows)[:, 1]
+
+    # repr(float(np.float32)) возвращает значение, которое Float.parseFloat в Java читает в тот же float
+    with open(os.path.join(OUT_DIR, "expected.csv"), "w", encoding="utf-8", newline="\n") as f:
+        f.write(",".join(FEATURES + ["probability"]) + "\n")
+        for row, p in zip(rows, probabilities):
+            f.write(",".join(repr(float(v)) for v in row) + "," + repr(float(p)) + "\n")
+    print(f"{len(rows)} rows, {model.tree_count_} trees -> {OUT_DIR}")
+
+
+if __name__ == "__main__":
+    main()
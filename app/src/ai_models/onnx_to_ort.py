@@ -0,0 +1,29 @@
+import sys
+import onnxruntime as ort
+
+
+def convert_to_ort(onnx_path: str, ort_path: str):
+    """Оптимизировать граф заранее и сохранить модель в формате ORT.
+    Приложение загружает .ort без разбора protobuf и без оптимизации графа на устройстве.
+    Используется уровень EXTENDED: оптимизации уровня ALL (раскладка памяти) зависят от процессора
+    и на телефоне могут не совпасть с машиной сборки.
+    """
+    options = ort.SessionOptions()
+    options.graph_optimization_level = ort.GraphOptimizationLevel.ORT_ENABLE_EXTENDED
+    options.optimized_model_filepath = ort_path
+    options.add_session_config_entry("session.save_model_format", "ORT")
+    ort.InferenceSession(onnx_path, options, providers=["CPUExecutionProvider"])
+
+    # Проверка: модель в формате ORT открывается и имеет те же входы и выходы
+    source = ort.InferenceSession(onnx_path, providers=["CPUExecutionProvider"])
+    converted = ort.InferenceSession(ort_path, providers=["CPUExecutionProvider"])
+    assert [i.name for i in source.get_inputs()] == [i.name for i in converted.get_inputs()]
+    assert [o.name for o in source.get_outputs()] == [o.name for o in converted.get_outputs()]
+    print(f"{onnx_path} -> {ort_path}")
+
+
+# Результат кладётся рядом с .onnx (app/src/ai_models — каталог assets); ParkinsonOnnxPredictor
+# предпочитает .ort, если он есть. Версия onnxruntime здесь не должна быть новее, чем в app/build.gradle.
+models = sys.argv[1:] or ["voice_model.onnx", "speech_model.onnx"]
+for model_path in models:
+    convert_to_ort(model_path, model_path[:-len(".onnx")] + ".ort")
@@ -0,0 +1,96 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Фоновый прогрев при запуске приложения: запуск Python и импорт audio_analysis (parselmouth, numpy, scipy)
+ * первой задачей {@link AnalysisWorker} параллельно с созданием обеих ONNX-сессий и пробным предсказанием.
+ * Задачи анализа Python встают в очередь воркера за прогревом; сессию модели экраны ждут через
+ * {@link #awaitModel} вместо того, чтобы создавать её в момент нажатия «Анализ».
+ */
+public final class AnalysisWarmup {
+
+    private static final String TAG = "AnalysisWarmup";
+
+    private static AnalysisWarmup instance;
+
+    private final CompletableFuture<Void> python;
+    private final CompletableFuture<Void> voiceModel;
+    private final CompletableFuture<Void> speechModel;
+    private final CompletableFuture<Void> ready;
+
+    private AnalysisWarmup(Context appContext) {
+        long start = System.nanoTime();
+        // Python прогревается в потоке AnalysisWorker; здесь — по потоку на модель, после прогрева пул завершается
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "analysis-warmup");
+            t.setDaemon(true);
+            return t;
+        });
+        python = AnalysisWorker.getInstance(appContext).warmUp();
+        voiceModel = CompletableFuture.runAsync(
+                () -> warmUpModel(appContext, ParkinsonOnnxPredictor.ModelType.VOICE), executor);
+        speechModel = CompletableFuture.runAsync(
+                () -> warmUpModel(appContext, ParkinsonOnnxPredictor.ModelType.SPEECH), executor);
+        ready = CompletableFuture.allOf(python, voiceModel, speechModel);
+        ready.whenComplete((ignored, error) -> {
+            executor.shutdown();
+            if (error != null) {
+                Log.w(TAG, "Warm-up finished with errors", error);
+            } else {
+                Log.d(TAG, "Warm-up finished in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        });
+    }
+
+    /** Запустить прогрев (повторные вызовы возвращают уже запущенный). */
+    public static synchronized AnalysisWarmup start(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            instance = new AnalysisWarmup(appContext);
+        }
+        return instance;
+    }
+
+    /** Готовность Python и обеих моделей; завершается с ошибкой, если любая из задач не удалась. */
+    public CompletableFuture<Void> ready() {
+        return ready;
+    }
+
+    /** Дождаться создания сессии модели. Вызывать только из фонового потока. */
+    public boolean awaitModel(ParkinsonOnnxPredictor.ModelType type) {
+        return await(type == ParkinsonOnnxPredictor.ModelType.VOICE ? voiceModel : speechModel, type.toString());
+    }
+
+    private static boolean await(CompletableFuture<Void> future, String what) {
+        try {
+            future.join();
+            return true;
+        } catch (Exception e) {
+            Log.w(TAG, "Warm-up failed: " + what, e);
+            return false;
+        }
+    }
+
+    /** Создать сессию в реестре (она там и останется) и выполнить одно предсказание на нулевом векторе. */
+    private static void warmUpModel(Context appContext, ParkinsonOnnxPredictor.ModelType type) {
+        long start = System.nanoTime();
+        OnnxSessionRegistry registry = OnnxSessionRegistry.getInstance(appContext);
+        try {
+            ParkinsonPredictor predictor = registry.acquire(type);
+            try {
+                predictor.predict(new float[type.featureOrder.length]);
+            } finally {
+                registry.release(type);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot warm up " + type, e);
+        }
+        Log.d(TAG, type + " model ready in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
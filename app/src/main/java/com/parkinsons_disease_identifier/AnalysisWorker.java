@@ -0,0 +1,131 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.chaquo.python.PyObject;
+import com.chaquo.python.Python;
+import com.chaquo.python.android.AndroidPlatform;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Долгоживущий поток анализа: единственный поток, который обращается к интерпретатору Python.
+ * Запросы с любых экранов ставятся в очередь и выполняются по одному, результат возвращается как
+ * {@link CompletableFuture}. Модуль audio_analysis и объекты парсера создаются один раз и переиспользуются,
+ * а GIL не делят между собой случайные потоки — задержка анализа предсказуема.
+ * Векторы признаков кэшируются по содержимому записи ({@link FeatureCache}): повторный анализ той же
+ * записи в Python не попадает.
+ */
+public final class AnalysisWorker {
+
+    private static final String TAG = "AnalysisWorker";
+
+    private static AnalysisWorker instance;
+
+    private final Context appContext;
+    private final ExecutorService executor;
+
+    /** Модуль audio_analysis; читается и пишется только в потоке воркера. */
+    private PyObject module;
+
+    private AnalysisWorker(Context appContext) {
+        this.appContext = appContext;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "analysis-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized AnalysisWorker getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            instance = new AnalysisWorker(appContext);
+        }
+        return instance;
+    }
+
+    /**
+     * Выполнить задачу в потоке воркера (после запуска Python и импорта audio_analysis).
+     * Ошибка задачи завершает future исключительно.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> job) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                ensureModule();
+                future.complete(job.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /** Признаки модели одним вектором (см. {@link FeatureBridge#extract}); null — ошибка парсера. */
+    public CompletableFuture<double[]> extractFeatures(String wavPath, ParkinsonOnnxPredictor.ModelType type) {
+        return cached(cache -> cache.keyForFile(new File(wavPath), type),
+                () -> FeatureBridge.extract(module, wavPath, type));
+    }
+
+    /** Признаки модели по записи в памяти (16-bit PCM, моно), без WAV-файла; null — ошибка парсера. */
+    public CompletableFuture<double[]> extractFeatures(short[] samples, int sampleRate,
+                                                       ParkinsonOnnxPredictor.ModelType type) {
+        return cached(cache -> cache.keyForSamples(samples, sampleRate, type),
+                () -> FeatureBridge.extract(module, samples, sampleRate, type));
+    }
+
+    /**
+     * Ключ считается в общем пуле (хэширование и чтение индекса кэша не занимают ни поток Python, ни UI);
+     * при попадании в кэш задача в очередь воркера не ставится, иначе результат извлечения сохраняется в кэш —
+     * только если все признаки вычислены: сбой Praat (NaN) при повторном анализе пересчитывается.
+     */
+    private CompletableFuture<double[]> cached(Function<FeatureCache, String> key, Callable<double[]> extract) {
+        return CompletableFuture.supplyAsync(() -> FeatureCache.getInstance(appContext)).thenCompose(cache -> {
+            String k = key.apply(cache);
+            double[] hit = cache.get(k);
+            if (hit != null) {
+                Log.d(TAG, "Feature cache hit");
+                return CompletableFuture.completedFuture(hit);
+            }
+            return submit(extract).thenApply(features -> {
+                cache.put(k, features);
+                return features;
+            });
+        });
+    }
+
+    /** Полный набор характеристик процессора голоса или речи; null — ошибка парсера. */
+    public CompletableFuture<Map<String, Object>> extractAll(String wavPath, boolean speech) {
+        return submit(() -> FeatureBridge.extractAll(module, wavPath, speech));
+    }
+
+    /** Запуск Python, импорт модулей и прогрев Praat — первая задача в очереди (см. {@link AnalysisWarmup}). */
+    CompletableFuture<Void> warmUp() {
+        return submit(() -> {
+            long start = System.nanoTime();
+            module.callAttr("warm_up");
+            Log.d(TAG, "Python ready in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return null;
+        });
+    }
+
+    private void ensureModule() {
+        if (module != null) {
+            return;
+        }
+        synchronized (Python.class) {
+            if (!Python.isStarted()) {
+                Python.start(new AndroidPlatform(appContext));
+            }
+        }
+        module = Python.getInstance().getModule("audio_analysis");
+    }
+}
@@ -0,0 +1,128 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Импорт выбранного пользователем аудиофайла в формат собственных записей приложения.
+ * WAV любого поддерживаемого {@link WavReader} формата потоково декодируется, сводится в моно,
+ * передискретизируется ({@link PolyphaseResampler}) и сохраняется как 16-bit PCM ({@link WavFileWriter}):
+ * память ограничена буферами на несколько тысяч отсчётов, а дальше импортированный файл проходит тот же путь,
+ * что и запись с микрофона. Прочие форматы копируются как есть — их читает Praat. Без зависимостей от Android.
+ */
+public final class AudioImporter {
+
+    /** Источник аудио, который можно открыть повторно (например, URI через ContentResolver). */
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    private static final int CHUNK_FRAMES = 4096;
+    /**
+     * Обычно хватает, чтобы после неудачного разбора заголовка WAV вернуться к началу и скопировать файл;
+     * если разбор прочитал больше (длинные служебные чанки), источник открывается заново.
+     */
+    private static final int MARK_LIMIT = 64 * 1024;
+    /** Суффикс файла, в который идёт импорт; в {@code target} он переименовывается только после успешной записи. */
+    static final String PARTIAL_SUFFIX = ".part";
+
+    private AudioImporter() {
+    }
+
+    /**
+     * Сохранить аудио из {@code source} в {@code target}. Открытые потоки закрываются. Запись идёт во временный
+     * файл рядом с {@code target}: при ошибке прежнее содержимое {@code target} остаётся нетронутым.
+     *
+     * @param sampleRate частота дискретизации результата для WAV
+     * @return true — WAV приведён к 16-bit моно {@code sampleRate}, false — файл скопирован без изменений
+     * @throws IOException ошибка чтения или записи
+     */
+    public static boolean importAudio(Source source, File target, int sampleRate) throws IOException {
+        File partial = new File(target.getPath() + PARTIAL_SUFFIX);
+        boolean moved = false;
+        try {
+            boolean converted = write(source, partial, sampleRate);
+            if (!partial.renameTo(target)) {
+                throw new IOException("Cannot move imported file to " + target.getAbsolutePath());
+            }
+            moved = true;
+            return converted;
+        } finally {
+            if (!moved) {
+                partial.delete();
+            }
+        }
+    }
+
+    private static boolean write(Source source, File target, int sampleRate) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(source.open(), MARK_LIMIT)) {
+            in.mark(MARK_LIMIT);
+            WavReader reader = null;
+            try {
+                reader = WavReader.open(in);
+            } catch (IOException notWav) {
+                if (rewind(in)) {
+                    copy(in, target);
+                    return false;
+                }
+            }
+            if (reader != null) {
+                convert(reader, target, sampleRate);
+                return true;
+            }
+        }
+        // Начало потока уже вытеснено из буфера — копируем из заново открытого источника
+        try (InputStream in = source.open()) {
+            copy(in, target);
+        }
+        return false;
+    }
+
+    private static void convert(WavReader reader, File target, int sampleRate) throws IOException {
+        PolyphaseResampler resampler;
+        try {
+            resampler = new PolyphaseResampler(reader.getSampleRate(), sampleRate);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        float[] decoded = new float[CHUNK_FRAMES];
+        float[] resampled = new float[resampler.maxOutput(CHUNK_FRAMES)];
+        short[] pcm = new short[resampled.length];
+        try (WavFileWriter writer = new WavFileWriter(target, sampleRate, WavFileWriter.DEFAULT_BATCH_BYTES)) {
+            int n;
+            while ((n = reader.readMono(decoded, 0, CHUNK_FRAMES)) > 0) {
+                write(writer, resampled, pcm, resampler.process(decoded, 0, n, resampled));
+            }
+            write(writer, resampled, pcm, resampler.flush(resampled));
+        }
+    }
+
+    /** Вернуться к отметке; false — разбор прочитал больше {@link #MARK_LIMIT} и отметка потеряна. */
+    private static boolean rewind(BufferedInputStream in) {
+        try {
+            in.reset();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void write(WavFileWriter writer, float[] samples, short[] pcm, int count) throws IOException {
+        WavReader.toPcm16(samples, 0, pcm, 0, count);
+        writer.write(pcm, 0, count);
+    }
+
+    private static void copy(InputStream in, File target) throws IOException {
+        try (OutputStream out = new FileOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                out.write(buffer, 0, bytesRead);
+            }
+        }
+    }
+}
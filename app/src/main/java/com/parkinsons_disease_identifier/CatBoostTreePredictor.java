@@ -0,0 +1,312 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Предсказание на чистой Java по JSON-выгрузке CatBoost (model.save_model(path, format="json")).
+ * Симметричные (oblivious) деревья хранятся плоскими массивами примитивов; индекс листа собирается
+ * из битов сравнений без ветвлений. Не требует нативной библиотеки ONNX Runtime и создания сессии.
+ * Результат должен совпадать с {@link ParkinsonOnnxPredictor}, который остаётся эталоном.
+ */
+public class CatBoostTreePredictor implements ParkinsonPredictor {
+
+    private static final String TAG = "CatBoostTreePredictor";
+
+    private final ParkinsonOnnxPredictor.ModelType modelType;
+
+    // Деревья: для дерева t сплиты лежат в [splitOffset[t], splitOffset[t] + depth[t]),
+    // листья — в [leafOffset[t], leafOffset[t] + 2^depth[t])
+    private final int[] treeDepth;
+    private final int[] treeSplitOffset;
+    private final int[] treeLeafOffset;
+    private final int[] splitFeature;
+    private final float[] splitBorder;
+    private final double[] leafValues;
+    private final double scale;
+    private final double bias;
+
+    // Переиспользуемая строка для одиночного предсказания (под блокировкой this)
+    private final float[] singleRow;
+    private final FloatBuffer singleInput;
+
+    public CatBoostTreePredictor(Context context, ParkinsonOnnxPredictor.ModelType type) throws IOException {
+        this(context.getAssets().open(type.jsonAssetName), type);
+    }
+
+    CatBoostTreePredictor(InputStream json, ParkinsonOnnxPredictor.ModelType type) throws IOException {
+        this.modelType = type;
+        long start = System.nanoTime();
+        ModelBuilder b = new ModelBuilder();
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(json, StandardCharsets.UTF_8)))) {
+            b.read(reader);
+        }
+        int featureCount = type.plan.size();
+        for (int i = 0; i < b.splitCount; i++) {
+            int flat = b.flatIndex(b.splitFeature[i]);
+            if (flat < 0 || flat >= featureCount) {
+                throw new IOException("Split uses feature " + flat + ", model has " + featureCount);
+            }
+            b.splitFeature[i] = flat;
+        }
+        treeDepth = Arrays.copyOf(b.treeDepth, b.treeCount);
+        treeSplitOffset = Arrays.copyOf(b.treeSplitOffset, b.treeCount);
+        treeLeafOffset = Arrays.copyOf(b.treeLeafOffset, b.treeCount);
+        splitFeature = Arrays.copyOf(b.splitFeature, b.splitCount);
+        splitBorder = Arrays.copyOf(b.splitBorder, b.splitCount);
+        leafValues = Arrays.copyOf(b.leafValues, b.leafCount);
+        scale = b.scale;
+        bias = b.bias;
+        singleRow = new float[featureCount];
+        singleInput = FloatBuffer.wrap(singleRow);
+        Log.d(TAG, "Model loaded: " + type.jsonAssetName + ", trees=" + treeDepth.length
+                + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @Override
+    public synchronized double predict(Map<String, ?> parserData) {
+        if (!modelType.plan.fill(parserData, singleInput, 0)) {
+            return -1.0;
+        }
+        return probability(singleRow, 0);
+    }
+
+    @Override
+    public synchronized double predict(float[] features) {
+        if (!modelType.plan.fill(features, singleInput, 0)) {
+            return -1.0;
+        }
+        return probability(singleRow, 0);
+    }
+
+    @Override
+    public synchronized double predict(double[] features) {
+        if (!modelType.plan.fill(features, singleInput, 0)) {
+            return -1.0;
+        }
+        return probability(singleRow, 0);
+    }
+
+    @Override
+    public double[] predictBatch(List<Map<String, ?>> parserDataList) {
+        int featureCount = modelType.plan.size();
+        float[] row = new float[featureCount];
+        FloatBuffer rowBuffer = FloatBuffer.wrap(row);
+        double[] out = new double[parserDataList.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = modelType.plan.fill(parserDataList.get(i), rowBuffer, 0) ? probability(row, 0) : -1.0;
+        }
+        return out;
+    }
+
+    @Override
+    public double[] predictBatch(float[][] rows) {
+        float[] row = new float[modelType.plan.size()];
+        FloatBuffer rowBuffer = FloatBuffer.wrap(row);
+        double[] out = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = rows[i] != null && modelType.plan.fill(rows[i], rowBuffer, 0) ? probability(row, 0) : -1.0;
+        }
+        return out;
+    }
+
+    @Override
+    public void close() {
+        // Нативных ресурсов нет
+    }
+
+    /** Вероятность класса 1 для строки признаков x[offset .. offset + F). */
+    private double probability(float[] x, int offset) {
+        double raw = scale * sumLeaves(x, offset) + bias;
+        return 1.0 / (1.0 + Math.exp(-raw));
+    }
+
+    private double sumLeaves(float[] x, int offset) {
+        final int[] depth = treeDepth;
+        final int[] splitOffset = treeSplitOffset;
+        final int[] leafOffset = treeLeafOffset;
+        final int[] feature = splitFeature;
+        final float[] border = splitBorder;
+        final double[] leaves = leafValues;
+        double sum = 0.0;
+        for (int t = 0; t < depth.length; t++) {
+            int s = splitOffset[t];
+            int index = 0;
+            for (int d = 0; d < depth[t]; d++, s++) {
+                // Условие CatBoost «x > border» без ветвления: знак (border - x); + 0.0f убирает -0.0
+                float diff = (border[s] - x[offset + feature[s]]) + 0.0f;
+                index |= (Float.floatToRawIntBits(diff) >>> 31) << d;
+            }
+            sum += leaves[leafOffset[t] + index];
+        }
+        return sum;
+    }
+
+    /** Потоковый разбор JSON CatBoost сразу в растущие массивы примитивов (без дерева JSON-объектов). */
+    private static final class ModelBuilder {
+        int treeCount;
+        int[] treeDepth = new int[256];
+        int[] treeSplitOffset = new int[256];
+        int[] treeLeafOffset = new int[256];
+        int splitCount;
+        int[] splitFeature = new int[2048];
+        float[] splitBorder = new float[2048];
+        int leafCount;
+        double[] leafValues = new double[1 << 16];
+        int[] flatIndexByFloatFeature = new int[0];
+        double scale = 1.0;
+        double bias = 0.0;
+
+        int flatIndex(int floatFeatureIndex) {
+            return floatFeatureIndex < flatIndexByFloatFeature.length
+                    ? flatIndexByFloatFeature[floatFeatureIndex] : floatFeatureIndex;
+        }
+
+        void read(JsonReader r) throws IOException {
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                if ("oblivious_trees".equals(name)) {
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        readTree(r);
+                    }
+                    r.endArray();
+                } else if ("features_info".equals(name)) {
+                    readFeaturesInfo(r);
+                } else if ("scale_and_bias".equals(name)) {
+                    r.beginArray();
+                    scale = r.nextDouble();
+                    if (r.peek() == JsonToken.BEGIN_ARRAY) {
+                        // Новый формат: [scale, [bias по измерениям]]
+                        r.beginArray();
+                        bias = r.hasNext() ? r.nextDouble() : 0.0;
+                        while (r.hasNext()) r.skipValue();
+                        r.endArray();
+                    } else {
+                        bias = r.nextDouble();
+                    }
+                    r.endArray();
+                } else {
+                    r.skipValue();
+                }
+            }
+            r.endObject();
+            if (treeCount == 0) {
+                throw new IOException("No oblivious_trees in CatBoost model");
+            }
+        }
+
+        private void readFeaturesInfo(JsonReader r) throws IOException {
+            r.beginObject();
+            while (r.hasNext()) {
+                if (!"float_features".equals(r.nextName())) {
+                    r.skipValue();
+                    continue;
+                }
+                r.beginArray();
+                int count = 0;
+                int[] flat = new int[16];
+                while (r.hasNext()) {
+                    int flatIndex = count;
+                    r.beginObject();
+                    while (r.hasNext()) {
+                        if ("flat_feature_index".equals(r.nextName())) {
+                            flatIndex = r.nextInt();
+                        } else {
+                            r.skipValue();
+                        }
+                    }
+                    r.endObject();
+                    if (count == flat.length) flat = Arrays.copyOf(flat, count * 2);
+                    flat[count++] = flatIndex;
+                }
+                r.endArray();
+                flatIndexByFloatFeature = Arrays.copyOf(flat, count);
+            }
+            r.endObject();
+        }
+
+        private void readTree(JsonReader r) throws IOException {
+            int firstSplit = splitCount;
+            int firstLeaf = leafCount;
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                if ("splits".equals(name)) {
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        readSplit(r);
+                    }
+                    r.endArray();
+                } else if ("leaf_values".equals(name)) {
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        if (leafCount == leafValues.length) leafValues = Arrays.copyOf(leafValues, leafCount * 2);
+                        leafValues[leafCount++] = r.nextDouble();
+                    }
+                    r.endArray();
+                } else {
+                    r.skipValue();
+                }
+            }
+            r.endObject();
+            int depth = splitCount - firstSplit;
+            if (leafCount - firstLeaf != (1 << depth)) {
+                throw new IOException("Tree " + treeCount + ": " + (leafCount - firstLeaf)
+                        + " leaves for depth " + depth + " (only binary classification is supported)");
+            }
+            if (treeCount == treeDepth.length) {
+                treeDepth = Arrays.copyOf(treeDepth, treeCount * 2);
+                treeSplitOffset = Arrays.copyOf(treeSplitOffset, treeCount * 2);
+                treeLeafOffset = Arrays.copyOf(treeLeafOffset, treeCount * 2);
+            }
+            treeDepth[treeCount] = depth;
+            treeSplitOffset[treeCount] = firstSplit;
+            treeLeafOffset[treeCount] = firstLeaf;
+            treeCount++;
+        }
+
+        private void readSplit(JsonReader r) throws IOException {
+            int feature = -1;
+            float border = 0f;
+            String type = "FloatFeature";
+            r.beginObject();
+            while (r.hasNext()) {
+                String name = r.nextName();
+                if ("float_feature_index".equals(name)) {
+                    feature = r.nextInt();
+                } else if ("border".equals(name)) {
+                    border = (float) r.nextDouble();
+                } else if ("split_type".equals(name)) {
+                    type = r.nextString();
+                } else {
+                    r.skipValue();
+                }
+            }
+            r.endObject();
+            if (!"FloatFeature".equals(type) || feature < 0) {
+                throw new IOException("Unsupported split type: " + type);
+            }
+            if (splitCount == splitFeature.length) {
+                splitFeature = Arrays.copyOf(splitFeature, splitCount * 2);
+                splitBorder = Arrays.copyOf(splitBorder, splitCount * 2);
+            }
+            splitFeature[splitCount] = feature;
+            splitBorder[splitCount] = border;
+            splitCount++;
+        }
+    }
+}
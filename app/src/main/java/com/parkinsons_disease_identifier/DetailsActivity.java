@@ -10,15 +10,26 @@ import android.widget.TextView;
 import androidx.activity.EdgeToEdge;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
 public class DetailsActivity extends AppCompatActivity {
 
+    private static final String TAG = "DetailsActivity";
+
+    /** Путь к WAV записи (без обрезки тишины): по нему досчитываются характеристики, не входящие в модель. */
+    public static final String EXTRA_AUDIO_PATH = "audio_path";
+    /** Тип анализа: {@link #MODE_VOICE} или {@link #MODE_SPEECH}. */
+    public static final String EXTRA_ANALYSIS_MODE = "analysis_mode";
+    public static final String MODE_VOICE = "voice";
+    public static final String MODE_SPEECH = "speech";
+
     private LinearLayout llCharacteristics;
     private Button btnBack;
 
@@ -68,13 +79,35 @@ public class DetailsActivity extends AppCompatActivity {
         // Получаем все ключи из Bundle (features передаются как отдельные ключи)
         Map<String, Object> features = new HashMap<>();
         for (String key : extras.keySet()) {
-            if (!key.equals("probability")) { // Пропускаем probability
+            if (!key.equals("probability") && !key.equals(EXTRA_AUDIO_PATH) && !key.equals(EXTRA_ANALYSIS_MODE)) {
                 Object value = extras.get(key);
                 if (value != null) {
                     features.put(key, value);
                 }
             }
         }
+        showCharacteristics(features);
+
+        // Для предсказания извлекались только входы модели — остальные характеристики считаем сейчас.
+        // Файл записи не обрезан по голосу, поэтому входы модели не перезаписываются: показываются
+        // значения, по которым сделано предсказание, а из файла добавляются только недостающие
+        final String audioPath = extras.getString(EXTRA_AUDIO_PATH);
+        final String mode = extras.getString(EXTRA_ANALYSIS_MODE);
+        if (audioPath != null && mode != null && new File(audioPath).isFile()) {
+            AnalysisWorker.getInstance(this)
+                    .extractAll(audioPath, MODE_SPEECH.equals(mode))
+                    .thenAcceptAsync(full -> {
+                        if (full != null && !isFinishing()) {
+                            Map<String, Object> merged = new HashMap<>(full);
+                            merged.putAll(features);
+                            showCharacteristics(merged);
+                        }
+                    }, ContextCompat.getMainExecutor(this));
+        }
+    }
+
+    private void showCharacteristics(Map<String, Object> features) {
+        llCharacteristics.removeAllViews();
 
         // Отображаем характеристики
         for (Map.Entry<String, Object> entry : features.entrySet()) {
@@ -0,0 +1,114 @@
+package com.parkinsons_disease_identifier;
+
+import android.util.Log;
+
+import com.chaquo.python.PyObject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Передача признаков из Python одним массивом double[] вместо словаря.
+ * Порядок признаков (схема) совпадает с {@link ParkinsonOnnxPredictor.ModelType#featureOrder} и
+ * регистрируется в audio_analysis один раз на процесс; дальше каждый анализ возвращает numpy float64,
+ * который Chaquopy копирует в double[] целиком, без обхода словаря и упаковки значений.
+ * Методы с модулем Python вызываются только из потока {@link AnalysisWorker}.
+ */
+public final class FeatureBridge {
+
+    private static final String TAG = "FeatureBridge";
+
+    private static final boolean[] registered = new boolean[ParkinsonOnnxPredictor.ModelType.values().length];
+
+    private FeatureBridge() {
+    }
+
+    /**
+     * Извлечь признаки модели из WAV-файла.
+     *
+     * @return вектор в порядке признаков модели (NaN — признак не вычислен) или null при ошибке парсера
+     */
+    static double[] extract(PyObject module, String wavPath, ParkinsonOnnxPredictor.ModelType type) {
+        try {
+            ensureSchema(module, type);
+            return checked(module.callAttr("get_feature_vector", wavPath, type.name()), type);
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка вызова парсера (audio_analysis.get_feature_vector)", e);
+            return null;
+        }
+    }
+
+    /**
+     * Извлечь признаки модели из записи в памяти (16-bit PCM, моно): массив передаётся в Python
+     * без промежуточного WAV-файла.
+     *
+     * @return вектор в порядке признаков модели (NaN — признак не вычислен) или null при ошибке парсера
+     */
+    static double[] extract(PyObject module, short[] samples, int sampleRate, ParkinsonOnnxPredictor.ModelType type) {
+        try {
+            ensureSchema(module, type);
+            return checked(module.callAttr("get_feature_vector_from_samples", samples, sampleRate, type.name()), type);
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка вызова парсера (audio_analysis.get_feature_vector_from_samples)", e);
+            return null;
+        }
+    }
+
+    private static double[] checked(PyObject vector, ParkinsonOnnxPredictor.ModelType type) {
+        double[] features = vector.toJava(double[].class);
+        if (features == null || features.length != type.plan.size()) {
+            Log.e(TAG, "Unexpected feature vector for " + type);
+            return null;
+        }
+        return features;
+    }
+
+    /**
+     * Полный набор характеристик процессора голоса или речи (экран подробностей).
+     *
+     * @return значения по именам характеристик без FILEPATH или null при ошибке парсера
+     */
+    static Map<String, Object> extractAll(PyObject module, String wavPath, boolean speech) {
+        try {
+            String function = speech ? "get_speech_features" : "get_voice_features";
+            Map<PyObject, PyObject> raw = module.callAttr(function, wavPath).asMap();
+            Map<String, Object> features = new HashMap<>();
+            for (Map.Entry<PyObject, PyObject> entry : raw.entrySet()) {
+                String key = entry.getKey().toString();
+                if ("FILEPATH".equals(key)) continue;
+                PyObject v = entry.getValue();
+                if (v != null) {
+                    try {
+                        features.put(key, v.toDouble());
+                    } catch (Exception e) {
+                        features.put(key, v.toString());
+                    }
+                }
+            }
+            return features;
+        } catch (Exception e) {
+            Log.e(TAG, "Ошибка вызова парсера (полный набор характеристик)", e);
+            return null;
+        }
+    }
+
+    /** Словарь «имя признака → значение» для передачи на экраны результатов и подробностей. */
+    public static Map<String, Object> toMap(ParkinsonOnnxPredictor.ModelType type, double[] features) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < features.length; i++) {
+            map.put(type.plan.parserKey(i), features[i]);
+        }
+        return map;
+    }
+
+    private static void ensureSchema(PyObject module, ParkinsonOnnxPredictor.ModelType type) {
+        synchronized (registered) {
+            if (registered[type.ordinal()]) {
+                return;
+            }
+            String mode = type == ParkinsonOnnxPredictor.ModelType.SPEECH ? "speech" : "voice";
+            module.callAttr("register_schema", type.name(), mode, type.plan.parserKeys());
+            registered[type.ordinal()] = true;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дисковый кэш векторов признаков, адресуемый содержимым записи: ключ — SHA-256 от версии извлекателя,
+ * типа модели, формата отсчётов и байтов блока data WAV. Заголовок и служебные чанки (LIST, метаданные)
+ * в ключ не входят, поэтому та же запись с другими метаданными попадает в кэш. Повторный анализ той же
+ * записи (повторная загрузка файла, «Повторить» на экране результатов) сразу переходит к предсказанию.
+ * Кэшируются только полностью вычисленные векторы: NaN (ошибка Praat) при повторе пересчитывается.
+ * <p>
+ * Ключ считается от тех отсчётов, которые действительно уходят в Praat. Экраны записи анализируют голосовые участки:
+ * и запись из памяти, и WAV-файл, прочитанный в память, обрезаются по голосу и хэшируются через {@link #keyForSamples}.
+ * Архивный WAV записи с микрофона содержит её целиком, с тишиной, поэтому его {@link #keyForFile} с ключом
+ * обрезанной записи не совпадает. Версия извлекателя — метка установки APK: парсер на Python
+ * поставляется вместе с приложением, и после обновления старые записи просто вытесняются.
+ * Вытеснение — LRU с ограничением общего размера; порядок доступа сохраняется во времени изменения файлов.
+ */
+public final class FeatureCache {
+
+    private static final String TAG = "FeatureCache";
+
+    private static final String DIR_NAME = "feature_cache";
+    /** Ограничение по месту на диске; запись занимает минимум один блок ФС, т. е. порядка 256 записей. */
+    private static final long MAX_BYTES = 1024 * 1024;
+    private static final long BLOCK_BYTES = 4096;
+    private static final int HASH_BUFFER_BYTES = 64 * 1024;
+
+    private static FeatureCache instance;
+
+    private final File dir;
+    private final String extractorVersion;
+    private final long maxBytes;
+    /** Имя файла → размер, в порядке доступа (первый — давно не использовался). */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    FeatureCache(File dir, String extractorVersion, long maxBytes) {
+        this.dir = dir;
+        this.extractorVersion = extractorVersion;
+        this.maxBytes = maxBytes;
+        loadIndex();
+    }
+
+    public static synchronized FeatureCache getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            instance = new FeatureCache(new File(appContext.getCacheDir(), DIR_NAME),
+                    ParkinsonOnnxPredictor.buildInstallStamp(appContext), MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Ключ для WAV-файла: блок data читается потоково, блоками, без загрузки файла целиком.
+     * Файл другого формата (не WAV) хэшируется целиком.
+     *
+     * @return ключ или null, если файл не прочитать
+     */
+    public String keyForFile(File file, ParkinsonOnnxPredictor.ModelType type) {
+        byte[] buffer = new byte[HASH_BUFFER_BYTES];
+        try (InputStream in = new FileInputStream(file)) {
+            WavReader reader = WavReader.open(in);
+            MessageDigest digest = newDigest(type, reader.getSampleRate(), reader.getChannels(),
+                    reader.getBitsPerSample(), reader.isFloat());
+            int n;
+            while ((n = reader.readData(buffer, 0, buffer.length)) >= 0) {
+                digest.update(buffer, 0, n);
+            }
+            return toHex(digest.digest());
+        } catch (IOException e) {
+            Log.d(TAG, "Not a supported WAV, hashing whole file: " + file);
+        }
+        MessageDigest digest = newDigest(type, 0, 0, 0, false);
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot hash " + file, e);
+            return null;
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Ключ для записи в памяти (16-bit PCM, моно). Совпадает с {@link #keyForFile} WAV-файла
+     * ({@link WavHeader#writeMono16}) только с теми же отсчётами, то есть без обрезки тишины.
+     */
+    public String keyForSamples(short[] samples, int sampleRate, ParkinsonOnnxPredictor.ModelType type) {
+        MessageDigest digest = newDigest(type, sampleRate, 1, 16, false);
+        ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < samples.length; ) {
+            int n = Math.min(samples.length - i, buffer.remaining() / 2);
+            buffer.asShortBuffer().put(samples, i, n);
+            buffer.position(buffer.position() + n * 2);
+            i += n;
+            if (buffer.remaining() < 2) {
+                digest.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        return toHex(digest.digest());
+    }
+
+    /** Вектор признаков по ключу или null (нет в кэше, файл повреждён или ключ null). */
+    public synchronized double[] get(String key) {
+        // get (а не containsKey) переносит запись в конец порядка доступа
+        if (key == null || entries.get(key) == null) {
+            return null;
+        }
+        File file = new File(dir, key);
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            double[] features = new double[in.readInt()];
+            for (int i = 0; i < features.length; i++) {
+                features[i] = in.readDouble();
+            }
+            // Порядок LRU переживает перезапуск через время изменения файла
+            file.setLastModified(System.currentTimeMillis());
+            return features;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable entry " + key, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /** Сохранить вектор; вектор с NaN или бесконечностью (признак не вычислен) не кэшируется. */
+    public synchronized void put(String key, double[] features) {
+        if (key == null || features == null || !isFinite(features)) {
+            return;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.w(TAG, "Cannot create " + dir);
+            return;
+        }
+        File file = new File(dir, key);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(features.length);
+            for (double value : features) {
+                out.writeDouble(value);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write entry " + key, e);
+            file.delete();
+            return;
+        }
+        long size = diskSize(file);
+        Long previous = entries.put(key, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        new File(dir, key).delete();
+    }
+
+    /** Восстановить порядок LRU по времени изменения файлов. */
+    private void loadIndex() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> sorted = new ArrayList<>();
+        Collections.addAll(sorted, files);
+        Collections.sort(sorted, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : sorted) {
+            long size = diskSize(file);
+            entries.put(file.getName(), size);
+            totalBytes += size;
+        }
+        evict();
+    }
+
+    private static boolean isFinite(double[] features) {
+        for (double value : features) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long diskSize(File file) {
+        return (file.length() + BLOCK_BYTES - 1) / BLOCK_BYTES * BLOCK_BYTES;
+    }
+
+    /** Дайджест с префиксом: версия извлекателя, модель и формат отсчётов (нули — файл не WAV). */
+    private MessageDigest newDigest(ParkinsonOnnxPredictor.ModelType type, int sampleRate, int channels,
+                                    int bitsPerSample, boolean isFloat) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String prefix = extractorVersion + '|' + type.name() + '|' + sampleRate + '|' + channels + '|'
+                + bitsPerSample + (isFloat ? "f" : "i") + '|';
+        digest.update(prefix.getBytes(StandardCharsets.UTF_8));
+        return digest;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
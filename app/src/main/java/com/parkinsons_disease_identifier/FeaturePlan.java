@@ -0,0 +1,122 @@
+package com.parkinsons_disease_identifier;
+
+import android.util.Log;
+
+import java.nio.FloatBuffer;
+import java.util.Map;
+
+/**
+ * Скомпилированный порядок признаков модели: для каждой позиции входного вектора заранее
+ * определено имя ключа парсера, чтобы при предсказании не разбирать featureOrder/parserKeyByModelKey заново.
+ * Создаётся один раз на {@link ParkinsonOnnxPredictor.ModelType}.
+ */
+public final class FeaturePlan {
+
+    private static final String TAG = "FeaturePlan";
+
+    private final String[] modelKeys;
+    private final String[] parserKeys;
+
+    FeaturePlan(String[] featureOrder, Map<String, String> parserKeyByModelKey) {
+        this.modelKeys = featureOrder.clone();
+        this.parserKeys = new String[featureOrder.length];
+        for (int i = 0; i < featureOrder.length; i++) {
+            String modelKey = featureOrder[i];
+            String mapped = parserKeyByModelKey != null ? parserKeyByModelKey.get(modelKey) : null;
+            parserKeys[i] = mapped != null ? mapped : modelKey;
+        }
+    }
+
+    /** Число признаков на входе модели. */
+    public int size() {
+        return modelKeys.length;
+    }
+
+    /** Имя признака парсера в позиции {@code index} входного вектора. */
+    public String parserKey(int index) {
+        return parserKeys[index];
+    }
+
+    /** Имена признаков парсера в порядке входа модели — список того, что нужно извлечь из аудио. */
+    public String[] parserKeys() {
+        return parserKeys.clone();
+    }
+
+    /**
+     * Записать признаки из словаря парсера в {@code dst}, начиная с абсолютной позиции {@code offset}.
+     *
+     * @return false, если признак отсутствует или не является конечным числом
+     */
+    public boolean fill(Map<String, ?> parserData, FloatBuffer dst, int offset) {
+        for (int i = 0; i < parserKeys.length; i++) {
+            Object val = parserData.get(parserKeys[i]);
+            if (val == null) {
+                Log.w(TAG, "Missing feature: " + parserKeys[i] + " (model: " + modelKeys[i] + ")");
+                return false;
+            }
+            float f;
+            if (val instanceof Number) {
+                f = ((Number) val).floatValue();
+            } else {
+                try {
+                    f = Float.parseFloat(String.valueOf(val));
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Cannot parse feature " + parserKeys[i] + " = " + val);
+                    return false;
+                }
+            }
+            if (!isFinite(f)) {
+                Log.w(TAG, "Invalid value for " + parserKeys[i] + ": " + f);
+                return false;
+            }
+            dst.put(offset + i, f);
+        }
+        return true;
+    }
+
+    /**
+     * Записать готовый вектор признаков (в порядке модели) в {@code dst}, начиная с позиции {@code offset}.
+     *
+     * @return false, если длина не совпадает или значение не является конечным числом
+     */
+    public boolean fill(float[] features, FloatBuffer dst, int offset) {
+        if (features.length != modelKeys.length) {
+            Log.w(TAG, "Expected " + modelKeys.length + " features, got " + features.length);
+            return false;
+        }
+        for (int i = 0; i < features.length; i++) {
+            if (!isFinite(features[i])) {
+                Log.w(TAG, "Invalid value for " + parserKeys[i] + ": " + features[i]);
+                return false;
+            }
+            dst.put(offset + i, features[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Записать вектор double[] (в порядке модели, например от {@link FeatureBridge}) в {@code dst}
+     * с приведением к float.
+     *
+     * @return false, если длина не совпадает или значение не является конечным числом
+     */
+    public boolean fill(double[] features, FloatBuffer dst, int offset) {
+        if (features.length != modelKeys.length) {
+            Log.w(TAG, "Expected " + modelKeys.length + " features, got " + features.length);
+            return false;
+        }
+        for (int i = 0; i < features.length; i++) {
+            float f = (float) features[i];
+            if (!isFinite(f)) {
+                Log.w(TAG, "Invalid value for " + parserKeys[i] + ": " + features[i]);
+                return false;
+            }
+            dst.put(offset + i, f);
+        }
+        return true;
+    }
+
+    private static boolean isFinite(float f) {
+        return !Float.isNaN(f) && !Float.isInfinite(f);
+    }
+}
@@ -0,0 +1,149 @@
+package com.parkinsons_disease_identifier;
+
+/**
+ * Измеритель уровня записи без выделения памяти: вызывается из потока захвата {@link WavRecorder}
+ * для каждого прочитанного куска. Считает RMS последнего блока 20 мс, пик, число клиппированных отсчётов
+ * и оценку SNR — разность самого громкого и самого тихого блока (шум оценивается по паузам и тишине до начала
+ * звука). Значения публикуются в volatile-поля и читаются из UI-потока без блокировок; все уровни — dBFS.
+ */
+public final class LevelMeter {
+
+    private static final int BLOCK_MS = 20;
+    /** Отсчёт у самой границы шкалы (|x| >= 32735 для 16 бит) считается клиппированным. */
+    private static final float CLIP_LEVEL = 0.999f;
+    public static final float SILENCE_DB = -100f;
+
+    private final int sampleRate;
+    private final int blockSize;
+
+    // Состояние потока захвата
+    private double blockSum;
+    private int blockFilled;
+    private float peak;
+    private long clipped;
+    private long samples;
+    private float loudestBlockDb = SILENCE_DB;
+    private float quietestBlockDb = 0f;
+    private int blocks;
+
+    private volatile float rmsDb = SILENCE_DB;
+    private volatile float peakDb = SILENCE_DB;
+    private volatile float loudestDb = SILENCE_DB;
+    private volatile float snrDb;
+    private volatile long clippedSamples;
+    private volatile long totalSamples;
+
+    public LevelMeter(int sampleRate) {
+        this.sampleRate = sampleRate;
+        this.blockSize = sampleRate * BLOCK_MS / 1000;
+    }
+
+    /** Начать новую запись (вызывать до запуска потока захвата). */
+    public void reset() {
+        blockSum = 0;
+        blockFilled = 0;
+        peak = 0;
+        clipped = 0;
+        samples = 0;
+        loudestBlockDb = SILENCE_DB;
+        quietestBlockDb = 0f;
+        blocks = 0;
+        rmsDb = SILENCE_DB;
+        peakDb = SILENCE_DB;
+        loudestDb = SILENCE_DB;
+        snrDb = 0f;
+        clippedSamples = 0;
+        totalSamples = 0;
+    }
+
+    public void add(short[] buffer, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            accumulate(buffer[i] / 32768f);
+        }
+        publish(count);
+    }
+
+    public void add(float[] buffer, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            accumulate(buffer[i]);
+        }
+        publish(count);
+    }
+
+    private void accumulate(float value) {
+        float magnitude = Math.abs(value);
+        if (magnitude > peak) {
+            peak = magnitude;
+        }
+        if (magnitude >= CLIP_LEVEL) {
+            clipped++;
+        }
+        blockSum += value * value;
+        if (++blockFilled == blockSize) {
+            endBlock();
+        }
+    }
+
+    private void endBlock() {
+        // Цифровой ноль (первые буферы на некоторых устройствах) — не шум, в оценку SNR не входит
+        if (blockSum > 0) {
+            float db = toDb(Math.sqrt(blockSum / blockSize));
+            rmsDb = db;
+            if (db > loudestBlockDb) {
+                loudestBlockDb = db;
+            }
+            if (blocks == 0 || db < quietestBlockDb) {
+                quietestBlockDb = db;
+            }
+            blocks++;
+        }
+        blockSum = 0;
+        blockFilled = 0;
+    }
+
+    private void publish(int count) {
+        samples += count;
+        totalSamples = samples;
+        clippedSamples = clipped;
+        peakDb = toDb(peak);
+        loudestDb = loudestBlockDb;
+        snrDb = blocks >= 2 ? loudestBlockDb - quietestBlockDb : 0f;
+    }
+
+    private static float toDb(double amplitude) {
+        return amplitude > 0 ? (float) Math.max(SILENCE_DB, 20.0 * Math.log10(amplitude)) : SILENCE_DB;
+    }
+
+    /** RMS последнего блока 20 мс (текущий уровень для индикатора). */
+    public float getRmsDb() {
+        return rmsDb;
+    }
+
+    /** Пик за всю запись. */
+    public float getPeakDb() {
+        return peakDb;
+    }
+
+    /** RMS самого громкого блока за запись (уровень голоса). */
+    public float getLoudestDb() {
+        return loudestDb;
+    }
+
+    /** Оценка SNR: самый громкий блок относительно самого тихого. */
+    public float getSnrDb() {
+        return snrDb;
+    }
+
+    public long getClippedSamples() {
+        return clippedSamples;
+    }
+
+    public double getClippedFraction() {
+        long total = totalSamples;
+        return total > 0 ? (double) clippedSamples / total : 0.0;
+    }
+
+    public double getDurationSeconds() {
+        return (double) totalSamples / sampleRate;
+    }
+}
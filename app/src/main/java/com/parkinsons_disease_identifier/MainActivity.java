@@ -15,8 +15,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
-import com.chaquo.python.Python;
-import com.chaquo.python.android.AndroidPlatform;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -38,10 +36,8 @@ public class MainActivity extends AppCompatActivity {
             return insets;
         });
 
-        // Инициализация Python
-        if (! Python.isStarted()) {
-            Python.start(new AndroidPlatform(this));
-        }
+        // Python и модели запускаются в фоне (AnalysisWarmup из ParkinsonApplication)
+        AnalysisWarmup.start(this);
 
         // Настройка кнопок
         setupButtons();
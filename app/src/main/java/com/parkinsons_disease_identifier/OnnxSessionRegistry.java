@@ -0,0 +1,187 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Реестр предикторов уровня приложения.
+ * Для каждого {@link ParkinsonOnnxPredictor.ModelType} предиктор создаётся лениво один раз
+ * и выдаётся всем экранам; учёт ссылок не даёт закрыть сессию, пока она используется.
+ * Незанятые сессии остаются в памяти до {@link #closeIdle()} (вызывается при нехватке памяти).
+ */
+public final class OnnxSessionRegistry {
+
+    private static final String TAG = "OnnxSessionRegistry";
+
+    private static final String PREFS_NAME = "SettingsPrefs";
+    /** Имя {@link Backend} в настройках (переключатель на экране настроек). */
+    static final String KEY_BACKEND = "predictor_backend";
+
+    /** Реализация предсказания. */
+    public enum Backend {
+        /** ONNX Runtime — эталонная реализация. */
+        ONNX,
+        /** {@link CatBoostTreePredictor}: деревья CatBoost на чистой Java, без нативной библиотеки. */
+        CATBOOST_JAVA
+    }
+
+    private static OnnxSessionRegistry instance;
+
+    private final Context appContext;
+    private final Map<ParkinsonOnnxPredictor.ModelType, Entry> entries =
+            new EnumMap<>(ParkinsonOnnxPredictor.ModelType.class);
+    private volatile Backend backend;
+    private volatile PredictorConfig config;
+
+    /** Состояние одной модели: предиктор (или null, пока не создан) и число активных ссылок. */
+    private static final class Entry {
+        ParkinsonPredictor predictor;
+        int refCount;
+        /** Предиктор создан со старыми настройками и закрывается, как только освободится последняя ссылка. */
+        boolean stale;
+    }
+
+    private OnnxSessionRegistry(Context context) {
+        this.appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        for (ParkinsonOnnxPredictor.ModelType type : ParkinsonOnnxPredictor.ModelType.values()) {
+            entries.put(type, new Entry());
+        }
+        this.backend = backendFromPreferences(appContext);
+        this.config = PredictorConfig.fromPreferences(appContext);
+    }
+
+    /** Реализация, выбранная в настройках; по умолчанию — ONNX. */
+    static Backend backendFromPreferences(Context context) {
+        String name = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getString(KEY_BACKEND, null);
+        try {
+            return name != null ? Backend.valueOf(name.toUpperCase(Locale.ROOT)) : Backend.ONNX;
+        } catch (IllegalArgumentException e) {
+            Log.w(TAG, "Unknown predictor backend in preferences: " + name);
+            return Backend.ONNX;
+        }
+    }
+
+    public static synchronized OnnxSessionRegistry getInstance(Context context) {
+        if (instance == null) {
+            instance = new OnnxSessionRegistry(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Выбрать реализацию для предикторов, которые будут созданы после вызова.
+     * Незанятые предикторы закрываются сразу, занятые — при последнем {@link #release}.
+     */
+    public void setBackend(Backend backend) {
+        if (this.backend != backend) {
+            this.backend = backend;
+            invalidate();
+        }
+    }
+
+    /**
+     * Задать настройки ONNX-сессий. Как и {@link #setBackend}, применяется к сессиям,
+     * созданным после вызова: незанятые закрываются сразу, занятые — при последнем {@link #release}.
+     */
+    public void setConfig(PredictorConfig config) {
+        this.config = config;
+        invalidate();
+    }
+
+    public PredictorConfig getConfig() {
+        return config;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Получить предиктор указанной модели, создав его при первом обращении.
+     * Каждый вызов должен быть парным к {@link #release(ParkinsonOnnxPredictor.ModelType)}.
+     * Предикторы разных моделей создаются независимо (блокировка на уровне модели).
+     * Пока предиктор со старыми настройками кем-то занят, он же выдаётся и новым вызовам.
+     */
+    public ParkinsonPredictor acquire(ParkinsonOnnxPredictor.ModelType type) throws Exception {
+        Entry entry = entries.get(type);
+        synchronized (entry) {
+            if (entry.predictor == null) {
+                long start = System.nanoTime();
+                entry.predictor = createPredictor(type);
+                entry.stale = false;
+                Log.d(TAG, "Predictor created: " + type + " (" + entry.predictor.getClass().getSimpleName()
+                        + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            entry.refCount++;
+            return entry.predictor;
+        }
+    }
+
+    /**
+     * Вернуть ссылку, полученную через {@link #acquire}. Сессия остаётся в кэше, если после её создания
+     * не менялись настройки; иначе последняя ссылка закрывает её.
+     */
+    public void release(ParkinsonOnnxPredictor.ModelType type) {
+        Entry entry = entries.get(type);
+        synchronized (entry) {
+            if (entry.refCount > 0) {
+                entry.refCount--;
+            } else {
+                Log.w(TAG, "Unbalanced release: " + type);
+            }
+            if (entry.refCount == 0 && entry.stale && entry.predictor != null) {
+                entry.predictor.close();
+                entry.predictor = null;
+                entry.stale = false;
+                Log.d(TAG, "Stale predictor closed: " + type);
+            }
+        }
+    }
+
+    /** Закрыть все сессии, на которые сейчас нет ссылок. Следующий acquire создаст их заново. */
+    public void closeIdle() {
+        for (Map.Entry<ParkinsonOnnxPredictor.ModelType, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.predictor != null && entry.refCount == 0) {
+                    entry.predictor.close();
+                    entry.predictor = null;
+                    Log.d(TAG, "Idle predictor closed: " + e.getKey());
+                }
+            }
+        }
+    }
+
+    /** Незанятые предикторы закрыть, занятые пометить для закрытия при последнем {@link #release}. */
+    private void invalidate() {
+        for (Map.Entry<ParkinsonOnnxPredictor.ModelType, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.predictor == null) {
+                    continue;
+                }
+                if (entry.refCount == 0) {
+                    entry.predictor.close();
+                    entry.predictor = null;
+                    Log.d(TAG, "Idle predictor closed: " + e.getKey());
+                } else {
+                    entry.stale = true;
+                }
+            }
+        }
+    }
+
+    private ParkinsonPredictor createPredictor(ParkinsonOnnxPredictor.ModelType type) throws Exception {
+        if (backend == Backend.CATBOOST_JAVA) {
+            if (ParkinsonOnnxPredictor.hasAsset(appContext, type.jsonAssetName)) {
+                return new CatBoostTreePredictor(appContext, type);
+            }
+            Log.w(TAG, "No " + type.jsonAssetName + " in assets, falling back to ONNX");
+        }
+        return new ParkinsonOnnxPredictor(appContext, type, config);
+    }
+}
@@ -0,0 +1,25 @@
+package com.parkinsons_disease_identifier;
+
+import android.app.Application;
+
+/**
+ * Класс приложения: владеет ресурсами, общими для всех экранов (ONNX-сессии).
+ */
+public class ParkinsonApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Python и модели готовятся в фоне, пока пользователь на главном экране
+        AnalysisWarmup.start(this);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Приложение ушло в фон или системе не хватает памяти — освобождаем незанятые сессии
+        if (level >= TRIM_MEMORY_BACKGROUND) {
+            OnnxSessionRegistry.getInstance(this).closeIdle();
+        }
+    }
+}
@@ -1,45 +1,70 @@
 package com.parkinsons_disease_identifier;
 
 import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
 import android.util.Log;
 
-import ai.onnxruntime.OnnxMap;
+import androidx.core.content.pm.PackageInfoCompat;
+
 import ai.onnxruntime.OnnxTensor;
-import ai.onnxruntime.OnnxValue;
 import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtSession;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Загрузка ONNX-моделей (речь / голос) и предсказание вероятности болезни Паркинсона
  * по признакам, полученным от парсера (get_data).
  */
-public class ParkinsonOnnxPredictor {
+public class ParkinsonOnnxPredictor implements ParkinsonPredictor {
 
     private static final String TAG = "ParkinsonOnnxPredictor";
 
     /** Целевая метка IS SICK: Yes/No → LabelEncoder → 1=Yes=болен, 0=No=здоров. Вероятность класса 1 = вероятность болезни. */
     private static final boolean CLASS_1_IS_DISEASE = true;
 
+    private static final String STAMP_SUFFIX = ".stamp";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    /** Суффикс оптимизированной на устройстве копии .onnx (формат ORT) в getFilesDir(). */
+    private static final String OPTIMIZED_SUFFIX = ".optimized.ort";
+
     public enum ModelType {
-        SPEECH("speech_model.onnx", SPEECH_FEATURE_ORDER, null),
-        VOICE("voice_model.onnx", VOICE_FEATURE_ORDER, null);
+        SPEECH("speech_model.onnx", "speech_model.ort", "speech_model.json", SPEECH_FEATURE_ORDER, null),
+        VOICE("voice_model.onnx", "voice_model.ort", "voice_model.json", VOICE_FEATURE_ORDER, null);
 
         final String assetName;
+        /** Заранее оптимизированная модель в формате ORT (необязательный asset). */
+        final String ortAssetName;
+        /** JSON-выгрузка той же модели CatBoost для {@link CatBoostTreePredictor}. */
+        final String jsonAssetName;
         final String[] featureOrder;
         final Map<String, String> parserKeyByModelKey;
+        /** Порядок признаков, разрешённый один раз при загрузке класса. */
+        final FeaturePlan plan;
 
-        ModelType(String assetName, String[] featureOrder, Map<String, String> parserKeyByModelKey) {
+        ModelType(String assetName, String ortAssetName, String jsonAssetName, String[] featureOrder,
+                  Map<String, String> parserKeyByModelKey) {
             this.assetName = assetName;
+            this.ortAssetName = ortAssetName;
+            this.jsonAssetName = jsonAssetName;
             this.featureOrder = featureOrder;
             this.parserKeyByModelKey = parserKeyByModelKey;
+            this.plan = new FeaturePlan(featureOrder, parserKeyByModelKey);
         }
     }
 
@@ -56,152 +81,412 @@ public class ParkinsonOnnxPredictor {
     private final OrtSession session;
     private final ModelType modelType;
     private final String inputName;
-    private final String outputName;
+    /** Способ чтения вероятностей, выбранный по метаданным выходов при загрузке; null — формат не поддерживается. */
+    private final ProbabilityReader reader;
+    private final Set<String> requestedOutputs;
+
+    // Переиспользуемый вход для одиночного предсказания: direct-буфер, тензор поверх него (без копирования)
+    // и карта входов. Доступ к ним — только под блокировкой this.
+    private final FloatBuffer singleInput;
+    private final OnnxTensor singleTensor;
+    private final Map<String, OnnxTensor> singleInputs;
+    private final double[] singleOutput = new double[1];
+    // Для тензорного выхода с известной формой одиночное предсказание пишет вероятности в закреплённый
+    // direct-буфер. Если сессия отвергла закреплённый выход, pinnedOutputs сбрасывается в null (под блокировкой this)
+    private final FloatBuffer pinnedOutput;
+    private final OnnxTensor pinnedTensor;
+    private Map<String, OnnxTensor> pinnedOutputs;
+    /** Сессия закрыта {@link #close()}; меняется и читается только под блокировкой this. */
+    private boolean closed;
 
     public ParkinsonOnnxPredictor(Context context, ModelType type) throws Exception {
+        this(context, type, PredictorConfig.DEFAULT);
+    }
+
+    public ParkinsonOnnxPredictor(Context context, ModelType type, PredictorConfig config) throws Exception {
+        this(loadSession(context, OrtEnvironment.getEnvironment(), type, config), type);
+    }
+
+    /**
+     * Загрузка модели прямо из файла, без assets и кэша в getFilesDir() (бенчмарки и проверки на JVM).
+     * Файл .ort считается уже оптимизированным.
+     */
+    ParkinsonOnnxPredictor(File modelFile, ModelType type, PredictorConfig config) throws OrtException {
+        this(createSession(OrtEnvironment.getEnvironment(), modelFile.getAbsolutePath(), config,
+                modelFile.getName().endsWith(".ort"), null), type);
+    }
+
+    private ParkinsonOnnxPredictor(OrtSession session, ModelType type) throws OrtException {
         this.modelType = type;
-        env = OrtEnvironment.getEnvironment();
-        File modelFile = copyAssetToFile(context, type.assetName);
-        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
-        session = env.createSession(modelFile.getAbsolutePath(), options);
+        this.env = OrtEnvironment.getEnvironment();
+        this.session = session;
         String[] inputNames = session.getInputNames().toArray(new String[0]);
-        String[] outputNames = session.getOutputNames().toArray(new String[0]);
         inputName = inputNames.length > 0 ? inputNames[0] : null;
-        outputName = outputNames.length > 0 ? outputNames[0] : null;
-        Log.d(TAG, "Model loaded: " + type.assetName + ", input=" + inputName + ", output=" + outputName);
+        reader = ProbabilityReader.detect(session.getOutputInfo(), CLASS_1_IS_DISEASE);
+        requestedOutputs = reader != null ? Collections.singleton(reader.outputName) : null;
+        long[] pinnedShape = reader instanceof ProbabilityReader.Tensor
+                ? ((ProbabilityReader.Tensor) reader).singleRowShape() : null;
+        if (pinnedShape != null) {
+            pinnedOutput = allocateInput((int) pinnedShape[pinnedShape.length - 1]);
+            pinnedTensor = OnnxTensor.createTensor(env, pinnedOutput, pinnedShape);
+            pinnedOutputs = Collections.singletonMap(reader.outputName, pinnedTensor);
+        } else {
+            pinnedOutput = null;
+            pinnedTensor = null;
+            pinnedOutputs = null;
+        }
+        if (inputName != null) {
+            singleInput = allocateInput(type.plan.size());
+            singleTensor = OnnxTensor.createTensor(env, singleInput, new long[]{1, type.plan.size()});
+            singleInputs = Collections.singletonMap(inputName, singleTensor);
+        } else {
+            singleInput = null;
+            singleTensor = null;
+            singleInputs = null;
+        }
+        Log.d(TAG, "Model loaded: " + type.assetName + ", input=" + inputName + ", output=" + reader);
     }
 
-    private static File copyAssetToFile(Context context, String assetName) throws Exception {
+    /**
+     * Открыть сессию самым быстрым доступным способом:
+     * 1) готовый .ort из assets (собран скриптом ai_models/onnx_to_ort.py) — без оптимизации на устройстве;
+     * 2) оптимизированная копия .onnx, сохранённая при прошлом запуске этой версии APK;
+     * 3) исходный .onnx с оптимизацией и сохранением результата для следующих запусков.
+     * Кэш оптимизированной модели ведётся только для CPU: с XNNPACK/NNAPI граф содержит узлы провайдера.
+     */
+    private static OrtSession loadSession(Context context, OrtEnvironment env, ModelType type,
+                                          PredictorConfig config) throws Exception {
+        if (hasAsset(context, type.ortAssetName)) {
+            File ortFile = ensureModelFile(context, type.ortAssetName);
+            Log.d(TAG, "Loading prebuilt ORT model: " + type.ortAssetName);
+            return createSession(env, ortFile.getAbsolutePath(), config, true, null);
+        }
+        File modelFile = ensureModelFile(context, type.assetName);
+        if (config.provider != PredictorConfig.Provider.CPU) {
+            return createSession(env, modelFile.getAbsolutePath(), config, false, null);
+        }
+        File optimized = new File(context.getFilesDir(), type.assetName + OPTIMIZED_SUFFIX);
+        File stampFile = new File(context.getFilesDir(), type.assetName + OPTIMIZED_SUFFIX + STAMP_SUFFIX);
+        // Результат оптимизации зависит от версии APK (модель) и уровня оптимизации
+        String stamp = buildInstallStamp(context) + ":" + config.optLevel;
+        if (optimized.isFile() && optimized.length() > 0 && stamp.equals(readStamp(stampFile))) {
+            try {
+                Log.d(TAG, "Loading cached optimized model: " + optimized.getName());
+                return createSession(env, optimized.getAbsolutePath(), config, true, null);
+            } catch (OrtException e) {
+                Log.w(TAG, "Cached optimized model is unreadable, rebuilding", e);
+            }
+        }
+        stampFile.delete();
+        OrtSession session = createSession(env, modelFile.getAbsolutePath(), config, false, optimized.getAbsolutePath());
+        if (optimized.isFile() && optimized.length() > 0) {
+            try (FileOutputStream stampOut = new FileOutputStream(stampFile)) {
+                stampOut.write(stamp.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot write optimized model stamp", e);
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Создать сессию с настройками config. Если execution provider не подключился
+     * (нет в сборке ORT или не поддерживается устройством), сессия создаётся на CPU.
+     *
+     * @param preOptimized  модель уже оптимизирована (.ort) — повторная оптимизация графа отключается
+     * @param optimizedPath куда сохранить оптимизированную модель в формате ORT; null — не сохранять
+     */
+    private static OrtSession createSession(OrtEnvironment env, String modelPath, PredictorConfig config,
+                                            boolean preOptimized, String optimizedPath) throws OrtException {
+        try {
+            return createSessionWith(env, modelPath, config, preOptimized, optimizedPath);
+        } catch (OrtException e) {
+            if (config.provider == PredictorConfig.Provider.CPU) {
+                throw e;
+            }
+            Log.w(TAG, config.provider + " unavailable, falling back to CPU", e);
+            return createSessionWith(env, modelPath, config.cpuOnly(), preOptimized, optimizedPath);
+        }
+    }
+
+    private static OrtSession createSessionWith(OrtEnvironment env, String modelPath, PredictorConfig config,
+                                                boolean preOptimized, String optimizedPath) throws OrtException {
+        try (OrtSession.SessionOptions options = config.createSessionOptions()) {
+            if (preOptimized) {
+                options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.NO_OPT);
+            }
+            if (optimizedPath != null) {
+                options.addConfigEntry("session.save_model_format", "ORT");
+                options.setOptimizedModelFilePath(optimizedPath);
+            }
+            OrtSession session = env.createSession(modelPath, options);
+            Log.d(TAG, "Session options: " + config + (preOptimized ? ", pre-optimized" : ""));
+            return session;
+        }
+    }
+
+    static boolean hasAsset(Context context, String name) {
+        try {
+            context.getAssets().open(name).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Вернуть файл модели в getFilesDir(), копируя asset только если копия отсутствует или устарела.
+     * Признак актуальности — метка установки APK (lastUpdateTime + versionCode) в файле рядом с моделью:
+     * assets меняются только вместе с APK, поэтому повторные запуски читают уже готовый файл без записи на флеш.
+     */
+    private static File ensureModelFile(Context context, String assetName) throws Exception {
         File out = new File(context.getFilesDir(), assetName);
+        File stampFile = new File(context.getFilesDir(), assetName + STAMP_SUFFIX);
+        String stamp = buildInstallStamp(context);
+        if (out.isFile() && out.length() > 0 && stamp.equals(readStamp(stampFile))) {
+            return out;
+        }
+        // Копируем во временный файл и переименовываем, чтобы прерванная копия не считалась актуальной
+        File tmp = new File(context.getFilesDir(), assetName + ".tmp");
         try (InputStream in = context.getAssets().open(assetName);
-             FileOutputStream outStream = new FileOutputStream(out)) {
-            byte[] buf = new byte[8192];
+             FileOutputStream outStream = new FileOutputStream(tmp)) {
+            byte[] buf = new byte[COPY_BUFFER_SIZE];
             int n;
             while ((n = in.read(buf)) > 0) {
                 outStream.write(buf, 0, n);
             }
+            outStream.getFD().sync();
         }
+        if (!tmp.renameTo(out)) {
+            tmp.delete();
+            throw new IOException("Cannot move model file to " + out.getAbsolutePath());
+        }
+        try (FileOutputStream stampOut = new FileOutputStream(stampFile)) {
+            stampOut.write(stamp.getBytes(StandardCharsets.UTF_8));
+        }
+        Log.d(TAG, "Model copied from assets: " + assetName + " (" + out.length() + " bytes)");
         return out;
     }
 
+    static String buildInstallStamp(Context context) {
+        try {
+            PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            return PackageInfoCompat.getLongVersionCode(info) + ":" + info.lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            // Не удалось определить версию — метка никогда не совпадёт, и модель будет скопирована заново
+            return "unknown:" + System.nanoTime();
+        }
+    }
+
+    private static String readStamp(File stampFile) {
+        if (!stampFile.isFile()) {
+            return null;
+        }
+        try (FileInputStream in = new FileInputStream(stampFile)) {
+            byte[] buf = new byte[(int) stampFile.length()];
+            int off = 0;
+            int n;
+            while (off < buf.length && (n = in.read(buf, off, buf.length - off)) > 0) {
+                off += n;
+            }
+            return new String(buf, 0, off, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     /**
      * Предсказание вероятности класса 1 (болезнь) по признакам из парсера.
      *
      * @param parserData словарь от get_data() (ключи — имена признаков парсера)
      * @return вероятность 0.0 .. 1.0 или -1 при ошибке
      */
-    public double predict(Map<String, ?> parserData) {
-        if (inputName == null || outputName == null) {
-            Log.e(TAG, "Model has no input/output names");
+    @Override
+    public synchronized double predict(Map<String, ?> parserData) {
+        if (inputName == null || reader == null) {
+            Log.e(TAG, "Model has no input or supported probability output");
+            return -1.0;
+        }
+        if (!modelType.plan.fill(parserData, singleInput, 0)) {
+            return -1.0;
+        }
+        return runSingle();
+    }
+
+    /**
+     * Предсказание по готовому вектору признаков в порядке {@link ModelType#featureOrder}.
+     * В установившемся режиме не создаёт новых входных буферов и тензоров.
+     *
+     * @return вероятность 0.0 .. 1.0 или -1 при ошибке
+     */
+    @Override
+    public synchronized double predict(float[] features) {
+        if (inputName == null || reader == null) {
+            Log.e(TAG, "Model has no input or supported probability output");
             return -1.0;
         }
-        float[] inputFloats = buildInputVector(parserData);
-        if (inputFloats == null) {
+        if (!modelType.plan.fill(features, singleInput, 0)) {
+            return -1.0;
+        }
+        return runSingle();
+    }
+
+    /**
+     * Предсказание по вектору double[] от {@link FeatureBridge} (порядок {@link ModelType#featureOrder}).
+     *
+     * @return вероятность 0.0 .. 1.0 или -1 при ошибке
+     */
+    @Override
+    public synchronized double predict(double[] features) {
+        if (inputName == null || reader == null) {
+            Log.e(TAG, "Model has no input or supported probability output");
+            return -1.0;
+        }
+        if (!modelType.plan.fill(features, singleInput, 0)) {
+            return -1.0;
+        }
+        return runSingle();
+    }
+
+    /**
+     * Пакетное предсказание: все строки упаковываются в один тензор [N, F] и считаются одним session.run.
+     * Как и одиночное, выполняется под блокировкой this — {@link #close()} не освободит сессию посреди прохода.
+     *
+     * @param parserDataList словари признаков от get_data()
+     * @return вероятности 0.0 .. 1.0 в порядке входных строк; -1 для строк с отсутствующими/некорректными признаками
+     */
+    @Override
+    public synchronized double[] predictBatch(List<Map<String, ?>> parserDataList) {
+        double[] out = new double[parserDataList.size()];
+        Arrays.fill(out, -1.0);
+        if (inputName == null || reader == null) {
+            Log.e(TAG, "Model has no input or supported probability output");
+            return out;
+        }
+        FeaturePlan plan = modelType.plan;
+        FloatBuffer input = allocateInput(parserDataList.size() * plan.size());
+        int[] rowIndex = new int[parserDataList.size()];
+        int valid = 0;
+        for (int i = 0; i < parserDataList.size(); i++) {
+            if (plan.fill(parserDataList.get(i), input, valid * plan.size())) {
+                rowIndex[valid++] = i;
+            }
+        }
+        runBatch(input, valid, rowIndex, out);
+        return out;
+    }
+
+    /**
+     * Пакетное предсказание по готовым векторам признаков в порядке {@link ModelType#featureOrder}.
+     *
+     * @param rows строки признаков; null или строка неверной длины даёт -1 в соответствующей позиции
+     * @return вероятности 0.0 .. 1.0 в порядке входных строк
+     */
+    @Override
+    public synchronized double[] predictBatch(float[][] rows) {
+        double[] out = new double[rows.length];
+        Arrays.fill(out, -1.0);
+        if (inputName == null || reader == null) {
+            Log.e(TAG, "Model has no input or supported probability output");
+            return out;
+        }
+        FeaturePlan plan = modelType.plan;
+        FloatBuffer input = allocateInput(rows.length * plan.size());
+        int[] rowIndex = new int[rows.length];
+        int valid = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i] != null && plan.fill(rows[i], input, valid * plan.size())) {
+                rowIndex[valid++] = i;
+            }
+        }
+        runBatch(input, valid, rowIndex, out);
+        return out;
+    }
+
+    private static FloatBuffer allocateInput(int floats) {
+        return ByteBuffer.allocateDirect(floats * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /** Одиночный проход по уже заполненному {@link #singleInput}. Вызывается под блокировкой this. */
+    private double runSingle() {
+        if (closed) {
+            Log.e(TAG, "Predictor is closed");
             return -1.0;
         }
         try {
-            long[] shape = new long[]{1, inputFloats.length};
-            OnnxTensor inputTensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(inputFloats), shape);
-            Map<String, OnnxTensor> inputs = new HashMap<>();
-            inputs.put(inputName, inputTensor);
-            try (OrtSession.Result result = session.run(inputs)) {
-                inputTensor.close();
-                OnnxValue probOut = result.get("probabilities").orElse(null);
-                if (probOut != null) {
-                    Object probVal = probOut.getValue();
-                    if (probVal instanceof List && !((List<?>) probVal).isEmpty()) {
-                        Object first = ((List<?>) probVal).get(0);
-                        Map<?, ?> probMap = null;
-                        if (first instanceof Map) {
-                            probMap = (Map<?, ?>) first;
-                        } else if (first instanceof OnnxMap) {
-                            Object mapVal = ((OnnxMap) first).getValue();
-                            if (mapVal instanceof Map) probMap = (Map<?, ?>) mapVal;
-                        }
-                        if (probMap != null) {
-                            Double p1 = extractProbClass1(probMap);
-                            if (p1 != null) {
-                                return CLASS_1_IS_DISEASE ? p1 : (1.0 - p1);
-                            }
-                        }
-                    }
+            boolean ok = false;
+            boolean done = false;
+            if (pinnedOutputs != null) {
+                try {
+                    // Вероятности уже в pinnedOutput; закреплённый тензор результату не принадлежит и при close() не освобождается
+                    session.run(singleInputs, Collections.<String>emptySet(), pinnedOutputs).close();
+                    ok = ((ProbabilityReader.Tensor) reader).read(pinnedOutput, 1, singleOutput);
+                    done = true;
+                } catch (OrtException e) {
+                    Log.w(TAG, "Pinned output rejected, using session outputs", e);
+                    pinnedOutputs = null;
                 }
-                OnnxValue firstOut = result.get(0);
-                if (firstOut != null) {
-                    Object raw = firstOut.getValue();
-                    if (raw instanceof float[]) {
-                        float[] arr = (float[]) raw;
-                        if (arr.length >= 2) return arr[1];
-                        if (arr.length == 1) return arr[0];
-                    }
-                    if (raw instanceof float[][]) {
-                        float[][] arr = (float[][]) raw;
-                        if (arr.length > 0 && arr[0].length >= 2) return arr[0][1];
-                        if (arr.length > 0 && arr[0].length == 1) return arr[0][0];
-                    }
+            }
+            if (!done) {
+                try (OrtSession.Result result = session.run(singleInputs, requestedOutputs)) {
+                    ok = reader.read(result.get(0), 1, singleOutput);
                 }
-                return -1.0;
             }
+            if (ok) {
+                return singleOutput[0];
+            }
+            Log.e(TAG, "Unexpected model output");
+            return -1.0;
         } catch (Exception e) {
             Log.e(TAG, "Predict failed", e);
             return -1.0;
         }
     }
 
-    private static Double extractProbClass1(Map<?, ?> probMap) {
-        Double p0 = null;
-        Double p1 = null;
-        for (Map.Entry<?, ?> e : probMap.entrySet()) {
-            Object k = e.getKey();
-            Object v = e.getValue();
-            if (!(k instanceof Number) || !(v instanceof Number)) continue;
-            long key = ((Number) k).longValue();
-            double val = ((Number) v).doubleValue();
-            if (key == 0) p0 = val;
-            else if (key == 1) p1 = val;
-        }
-        if (p0 != null && p1 != null) {
-            Log.d(TAG, "ОННХ вероятности: класс 0 = " + String.format("%.4f", p0) + ", класс 1 = " + String.format("%.4f", p1));
-        }
-        if (p1 != null) return p1;
-        if (p0 != null) return p0;
-        return null;
-    }
-
-    private float[] buildInputVector(Map<String, ?> parserData) {
-        String[] order = modelType.featureOrder;
-        Map<String, String> keyMap = modelType.parserKeyByModelKey;
-        float[] vec = new float[order.length];
-        for (int i = 0; i < order.length; i++) {
-            String modelKey = order[i];
-            String parserKey = (keyMap != null && keyMap.containsKey(modelKey)) ? keyMap.get(modelKey) : modelKey;
-            Object val = parserData.get(parserKey);
-            if (val == null) {
-                Log.w(TAG, "Missing feature: " + parserKey + " (model: " + modelKey + ")");
-                return null;
-            }
-            float f;
-            if (val instanceof Number) {
-                f = ((Number) val).floatValue();
-            } else {
-                try {
-                    f = Float.parseFloat(String.valueOf(val));
-                } catch (NumberFormatException e) {
-                    Log.w(TAG, "Cannot parse feature " + parserKey + " = " + val);
-                    return null;
-                }
+    /**
+     * Один проход модели по первым {@code rowCount} строкам {@code input};
+     * результат строки r записывается в {@code out[rowIndex[r]]}. Вызывается под блокировкой this.
+     */
+    private void runBatch(FloatBuffer input, int rowCount, int[] rowIndex, double[] out) {
+        if (rowCount == 0) {
+            return;
+        }
+        if (closed) {
+            Log.e(TAG, "Predictor is closed");
+            return;
+        }
+        int featureCount = modelType.plan.size();
+        input.position(0);
+        input.limit(rowCount * featureCount);
+        long[] shape = new long[]{rowCount, featureCount};
+        try (OnnxTensor inputTensor = OnnxTensor.createTensor(env, input, shape);
+             OrtSession.Result result = session.run(Collections.singletonMap(inputName, inputTensor), requestedOutputs)) {
+            double[] probs = new double[rowCount];
+            if (!reader.read(result.get(0), rowCount, probs)) {
+                Log.e(TAG, "Unexpected model output for " + rowCount + " rows");
+                return;
             }
-            if (Float.isNaN(f) || Float.isInfinite(f)) {
-                Log.w(TAG, "Invalid value for " + parserKey + ": " + f);
-                return null;
+            for (int r = 0; r < rowCount; r++) {
+                out[rowIndex[r]] = probs[r];
             }
-            vec[i] = f;
+        } catch (Exception e) {
+            Log.e(TAG, "Predict failed", e);
         }
-        return vec;
     }
 
-    public void close() {
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         try {
+            if (singleTensor != null) {
+                singleTensor.close();
+            }
+            if (pinnedTensor != null) {
+                pinnedTensor.close();
+            }
             if (session != null) {
                 session.close();
             }
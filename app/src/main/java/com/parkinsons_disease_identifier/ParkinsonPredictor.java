@@ -0,0 +1,32 @@
+package com.parkinsons_disease_identifier;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Предсказание вероятности болезни Паркинсона по признакам парсера.
+ * Реализации: {@link ParkinsonOnnxPredictor} (ONNX Runtime, эталон) и {@link CatBoostTreePredictor} (чистая Java).
+ * Признаки передаются в порядке {@link ParkinsonOnnxPredictor.ModelType#featureOrder}.
+ */
+public interface ParkinsonPredictor {
+
+    /**
+     * @param parserData словарь от get_data() (ключи — имена признаков парсера)
+     * @return вероятность 0.0 .. 1.0 или -1 при ошибке
+     */
+    double predict(Map<String, ?> parserData);
+
+    /** @return вероятность 0.0 .. 1.0 или -1 при ошибке */
+    double predict(float[] features);
+
+    /** Вектор от {@link FeatureBridge}; @return вероятность 0.0 .. 1.0 или -1 при ошибке */
+    double predict(double[] features);
+
+    /** @return вероятности в порядке входных строк; -1 для некорректных строк */
+    double[] predictBatch(List<Map<String, ?>> parserDataList);
+
+    /** @return вероятности в порядке входных строк; -1 для некорректных строк */
+    double[] predictBatch(float[][] rows);
+
+    void close();
+}
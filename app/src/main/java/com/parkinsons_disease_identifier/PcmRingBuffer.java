@@ -0,0 +1,90 @@
+package com.parkinsons_disease_identifier;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кольцевой буфер PCM (16-bit или float) без блокировок для одного производителя и одного потребителя.
+ * Производитель пишет прямо в массив ({@link #shortArray()} / {@link #floatArray()}),
+ * например, {@code AudioRecord.read}, и публикует отсчёты через {@link #commit(int)};
+ * потребитель читает непрерывные участки и освобождает их {@link #release(int)}.
+ * Позиции — счётчики отсчётов, растущие без переполнения; индекс в массиве — позиция по маске.
+ */
+public final class PcmRingBuffer {
+
+    private final short[] shorts;
+    private final float[] floats;
+    private final int capacity;
+    private final int mask;
+    /** Позиция записи: пишет только производитель. */
+    private final AtomicLong tail = new AtomicLong();
+    /** Позиция чтения: пишет только потребитель. */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity     ёмкость в отсчётах, округляется вверх до степени двойки
+     * @param floatSamples хранить отсчёты float (ENCODING_PCM_FLOAT), иначе 16-bit
+     */
+    public PcmRingBuffer(int capacity, boolean floatSamples) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.shorts = floatSamples ? null : new short[this.capacity];
+        this.floats = floatSamples ? new float[this.capacity] : null;
+    }
+
+    /** Массив 16-bit отсчётов; null для буфера float. */
+    public short[] shortArray() {
+        return shorts;
+    }
+
+    /** Массив float-отсчётов; null для 16-bit буфера. */
+    public float[] floatArray() {
+        return floats;
+    }
+
+    public boolean isFloat() {
+        return floats != null;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // --- производитель ---
+
+    /** Смещение в массиве, с которого пишет производитель. */
+    public int writeOffset() {
+        return (int) (tail.get() & mask);
+    }
+
+    /** Сколько отсчётов можно записать одним куском с {@link #writeOffset()} (до конца массива). */
+    public int writableContiguous() {
+        long t = tail.get();
+        int free = capacity - (int) (t - head.get());
+        return Math.min(free, capacity - (int) (t & mask));
+    }
+
+    /** Опубликовать {@code count} записанных отсчётов. */
+    public void commit(int count) {
+        // lazySet: порядок записи в массив и позиции сохраняется, полный барьер не нужен
+        tail.lazySet(tail.get() + count);
+    }
+
+    // --- потребитель ---
+
+    /** Смещение в массиве, с которого читает потребитель. */
+    public int readOffset() {
+        return (int) (head.get() & mask);
+    }
+
+    /** Сколько опубликованных отсчётов можно прочитать одним куском с {@link #readOffset()}. */
+    public int readableContiguous() {
+        long h = head.get();
+        int available = (int) (tail.get() - h);
+        return Math.min(available, capacity - (int) (h & mask));
+    }
+
+    /** Освободить {@code count} прочитанных отсчётов для производителя. */
+    public void release(int count) {
+        head.lazySet(head.get() + count);
+    }
+}
@@ -0,0 +1,173 @@
+package com.parkinsons_disease_identifier;
+
+/**
+ * Потоковая передискретизация с рациональным коэффициентом L/M (L/M = выходная / входная частота после
+ * сокращения на НОД) многофазным КИХ-фильтром: окно Кайзера × sinc, срез — 0,95 от меньшей из частот Найквиста.
+ * Фильтр хранится по фазам (L фаз по N коэффициентов), на каждый выходной отсчёт — одна свёртка длины N
+ * с историей входа; память постоянна и не зависит от длины сигнала. Задержка фильтра компенсируется:
+ * выход выровнен по времени со входом и после {@link #flush} имеет длину round(вход × L / M).
+ * Без зависимостей от Android.
+ */
+public final class PolyphaseResampler {
+
+    /** Отводов на фазу при повышении частоты; при понижении растёт в M/L раз вместе с сужением полосы. */
+    private static final int BASE_TAPS = 32;
+    private static final double ROLLOFF = 0.95;
+    /** Подавление вне полосы около 90 дБ. */
+    private static final double KAISER_BETA = 8.6;
+    /** Больше фаз — экзотическое отношение частот (таблица фильтра слишком велика). */
+    static final int MAX_PHASES = 4096;
+
+    private final int up;
+    private final int down;
+    private final int taps;
+    /** Коэффициенты по фазам: фаза p — {@code coefficients[p * taps .. p * taps + taps)}. */
+    private final float[] coefficients;
+    /** Последние {@code taps} входных отсчётов, записанные дважды — окно свёртки всегда непрерывно. */
+    private final float[] history;
+    private int historyPosition;
+
+    /** Индекс текущего входного отсчёта. */
+    private long inputIndex = -1;
+    /** Момент следующего выходного отсчёта на сетке частоты вход × L. */
+    private long nextOutput;
+    /** Выходных отсчётов, ещё не пропущенных из-за задержки фильтра. */
+    private long skip;
+    private long inputCount;
+    private long outputCount;
+
+    /** @throws IllegalArgumentException частоты не положительны или их отношение не поддерживается */
+    public PolyphaseResampler(int inputRate, int outputRate) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Bad sample rates " + inputRate + " -> " + outputRate);
+        }
+        int gcd = gcd(inputRate, outputRate);
+        up = outputRate / gcd;
+        down = inputRate / gcd;
+        if (up > MAX_PHASES) {
+            throw new IllegalArgumentException("Unsupported ratio " + inputRate + " -> " + outputRate);
+        }
+        if (up == down) {
+            taps = 1;
+            coefficients = new float[]{1f};
+        } else {
+            taps = (int) Math.ceil(BASE_TAPS * Math.max(1.0, (double) down / up));
+            coefficients = design(up, down, taps);
+        }
+        history = new float[taps * 2];
+        // Центр фильтра — (L·N − 1) / 2 на сетке вход × L, т. е. столько выходных отсчётов задержки
+        skip = up == down ? 0 : Math.round((up * (double) taps - 1) / 2.0 / down);
+    }
+
+    private static float[] design(int up, int down, int taps) {
+        int length = up * taps;
+        double cutoff = 0.5 * ROLLOFF / Math.max(up, down); // циклов на отсчёт сетки вход × L
+        double centre = (length - 1) / 2.0;
+        double norm = besselI0(KAISER_BETA);
+        double[] h = new double[length];
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            double t = i - centre;
+            double x = 2 * cutoff * t;
+            double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+            double r = 2 * t / (length - 1);
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0.0, 1 - r * r))) / norm;
+            h[i] = sinc * window;
+            sum += h[i];
+        }
+        // Усиление L (вставленные нули), т. е. единичное усиление постоянной составляющей на каждой фазе
+        double gain = up / sum;
+        float[] result = new float[length];
+        for (int p = 0; p < up; p++) {
+            for (int j = 0; j < taps; j++) {
+                result[p * taps + j] = (float) (h[p + j * up] * gain);
+            }
+        }
+        return result;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double half = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= half / k;
+            double add = term * term;
+            sum += add;
+            if (add < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /** Верхняя граница числа выходных отсчётов для {@code inputCount} входных (размер буфера out). */
+    public int maxOutput(int inputCount) {
+        return (int) ((long) inputCount * up / down) + 2;
+    }
+
+    /**
+     * Обработать {@code count} входных отсчётов.
+     *
+     * @param out буфер не меньше {@link #maxOutput(int) maxOutput(count)}
+     * @return число записанных выходных отсчётов
+     */
+    public int process(float[] in, int offset, int count, float[] out) {
+        inputCount += count;
+        int written = 0;
+        for (int i = offset; i < offset + count; i++) {
+            written = push(in[i], out, written);
+        }
+        return written;
+    }
+
+    /**
+     * Конец сигнала: дописать отсчёты, задержанные фильтром.
+     *
+     * @param out буфер не меньше {@link #maxOutput(int) maxOutput(4096)}
+     * @return число записанных выходных отсчётов
+     */
+    public int flush(float[] out) {
+        long expected = Math.round((double) inputCount * up / down);
+        int written = 0;
+        while (outputCount < expected) {
+            written = push(0f, out, written);
+        }
+        return written;
+    }
+
+    private int push(float value, float[] out, int written) {
+        history[historyPosition] = value;
+        history[historyPosition + taps] = value;
+        historyPosition = historyPosition + 1 == taps ? 0 : historyPosition + 1;
+        inputIndex++;
+        // Окно свёртки: x[n], x[n-1], ..., x[n-taps+1] — с конца непрерывного участка истории
+        int newest = historyPosition + taps - 1;
+        long limit = (inputIndex + 1) * up;
+        while (nextOutput < limit) {
+            int phase = (int) (nextOutput - inputIndex * up);
+            nextOutput += down;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            int base = phase * taps;
+            float acc = 0;
+            for (int j = 0; j < taps; j++) {
+                acc += coefficients[base + j] * history[newest - j];
+            }
+            out[written++] = acc;
+            outputCount++;
+        }
+        return written;
+    }
+}
@@ -0,0 +1,246 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.Locale;
+
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+/**
+ * Настройки сессии ONNX Runtime: потоки, уровень оптимизации графа, режим выполнения,
+ * аллокатор и execution provider. Значения задаются на экране настроек и хранятся в SharedPreferences
+ * ({@link #fromPreferences} / {@link #save}), чтобы подбирать баланс задержки и памяти под устройство без пересборки.
+ */
+public final class PredictorConfig {
+
+    private static final String TAG = "PredictorConfig";
+
+    private static final String PREFS_NAME = "SettingsPrefs";
+    private static final String KEY_INTRA_THREADS = "ort_intra_threads";
+    private static final String KEY_INTER_THREADS = "ort_inter_threads";
+    private static final String KEY_OPT_LEVEL = "ort_opt_level";
+    private static final String KEY_PARALLEL = "ort_parallel_execution";
+    private static final String KEY_CPU_ARENA = "ort_cpu_arena";
+    private static final String KEY_MEMORY_PATTERN = "ort_memory_pattern";
+    private static final String KEY_PROVIDER = "ort_provider";
+
+    /** Execution provider; при ошибке его подключения сессия создаётся на CPU. */
+    public enum Provider {
+        CPU,
+        XNNPACK,
+        NNAPI
+    }
+
+    /**
+     * Настройки по умолчанию для маленьких древесных моделей: один поток (накладные расходы пула
+     * больше самой модели), последовательное выполнение, полная оптимизация графа.
+     */
+    public static final PredictorConfig DEFAULT = new Builder().build();
+
+    /** Число потоков внутри оператора; 0 — выбор ONNX Runtime. */
+    public final int intraOpThreads;
+    /** Число потоков между операторами (только для параллельного режима); 0 — выбор ONNX Runtime. */
+    public final int interOpThreads;
+    public final OrtSession.SessionOptions.OptLevel optLevel;
+    public final boolean parallelExecution;
+    public final boolean cpuArena;
+    public final boolean memoryPattern;
+    public final Provider provider;
+
+    private PredictorConfig(Builder b) {
+        this.intraOpThreads = b.intraOpThreads;
+        this.interOpThreads = b.interOpThreads;
+        this.optLevel = b.optLevel;
+        this.parallelExecution = b.parallelExecution;
+        this.cpuArena = b.cpuArena;
+        this.memoryPattern = b.memoryPattern;
+        this.provider = b.provider;
+    }
+
+    /**
+     * Прочитать настройки из SharedPreferences; отсутствующие или некорректные значения берутся из {@link #DEFAULT}.
+     */
+    public static PredictorConfig fromPreferences(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Builder b = DEFAULT.toBuilder();
+        try {
+            b.setIntraOpThreads(prefs.getInt(KEY_INTRA_THREADS, DEFAULT.intraOpThreads));
+            b.setInterOpThreads(prefs.getInt(KEY_INTER_THREADS, DEFAULT.interOpThreads));
+            b.setParallelExecution(prefs.getBoolean(KEY_PARALLEL, DEFAULT.parallelExecution));
+            b.setCpuArena(prefs.getBoolean(KEY_CPU_ARENA, DEFAULT.cpuArena));
+            b.setMemoryPattern(prefs.getBoolean(KEY_MEMORY_PATTERN, DEFAULT.memoryPattern));
+            String optLevel = prefs.getString(KEY_OPT_LEVEL, null);
+            if (optLevel != null) {
+                b.setOptLevel(OrtSession.SessionOptions.OptLevel.valueOf(optLevel.toUpperCase(Locale.ROOT)));
+            }
+            String provider = prefs.getString(KEY_PROVIDER, null);
+            if (provider != null) {
+                b.setProvider(Provider.valueOf(provider.toUpperCase(Locale.ROOT)));
+            }
+        } catch (RuntimeException e) {
+            // ClassCastException при неверном типе значения, IllegalArgumentException при неизвестном имени
+            Log.w(TAG, "Invalid ORT settings in preferences, using defaults", e);
+            return DEFAULT;
+        }
+        return b.build();
+    }
+
+    /** Сохранить настройки; их прочитает {@link #fromPreferences} при следующем запуске. */
+    public void save(Context context) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putInt(KEY_INTRA_THREADS, intraOpThreads)
+                .putInt(KEY_INTER_THREADS, interOpThreads)
+                .putString(KEY_OPT_LEVEL, optLevel.name())
+                .putBoolean(KEY_PARALLEL, parallelExecution)
+                .putBoolean(KEY_CPU_ARENA, cpuArena)
+                .putBoolean(KEY_MEMORY_PATTERN, memoryPattern)
+                .putString(KEY_PROVIDER, provider.name())
+                .apply();
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .setIntraOpThreads(intraOpThreads)
+                .setInterOpThreads(interOpThreads)
+                .setOptLevel(optLevel)
+                .setParallelExecution(parallelExecution)
+                .setCpuArena(cpuArena)
+                .setMemoryPattern(memoryPattern)
+                .setProvider(provider);
+    }
+
+    /** Настройки без execution provider — для повторной попытки, если провайдер не подключился. */
+    public PredictorConfig cpuOnly() {
+        return provider == Provider.CPU ? this : toBuilder().setProvider(Provider.CPU).build();
+    }
+
+    /**
+     * Создать SessionOptions по этим настройкам. Вызывающий закрывает их после создания сессии.
+     *
+     * @throws OrtException если ONNX Runtime отклонил параметр или провайдер недоступен на устройстве
+     */
+    OrtSession.SessionOptions createSessionOptions() throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        try {
+            options.setOptimizationLevel(optLevel);
+            options.setExecutionMode(parallelExecution
+                    ? OrtSession.SessionOptions.ExecutionMode.PARALLEL
+                    : OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL);
+            options.setCPUArenaAllocator(cpuArena);
+            options.setMemoryPatternOptimization(memoryPattern);
+            if (interOpThreads > 0) {
+                options.setInterOpNumThreads(interOpThreads);
+            }
+            switch (provider) {
+                case XNNPACK:
+                    // XNNPACK держит собственный пул: пул ORT сводим к одному потоку без активного ожидания
+                    options.setIntraOpNumThreads(1);
+                    options.addConfigEntry("session.intra_op.allow_spinning", "0");
+                    options.addXnnpack(Collections.singletonMap("intra_op_num_threads",
+                            String.valueOf(Math.max(intraOpThreads, 1))));
+                    break;
+                case NNAPI:
+                    applyIntraOpThreads(options);
+                    options.addNnapi();
+                    break;
+                default:
+                    applyIntraOpThreads(options);
+                    break;
+            }
+        } catch (OrtException e) {
+            options.close();
+            throw e;
+        }
+        return options;
+    }
+
+    private void applyIntraOpThreads(OrtSession.SessionOptions options) throws OrtException {
+        if (intraOpThreads > 0) {
+            options.setIntraOpNumThreads(intraOpThreads);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PredictorConfig)) {
+            return false;
+        }
+        PredictorConfig other = (PredictorConfig) o;
+        return intraOpThreads == other.intraOpThreads && interOpThreads == other.interOpThreads
+                && optLevel == other.optLevel && parallelExecution == other.parallelExecution
+                && cpuArena == other.cpuArena && memoryPattern == other.memoryPattern && provider == other.provider;
+    }
+
+    @Override
+    public int hashCode() {
+        return toString().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "PredictorConfig[" + provider + ", intra=" + intraOpThreads + ", inter=" + interOpThreads
+                + ", " + optLevel + (parallelExecution ? ", parallel" : ", sequential")
+                + ", arena=" + cpuArena + ", memPattern=" + memoryPattern + "]";
+    }
+
+    public static final class Builder {
+        private int intraOpThreads = 1;
+        private int interOpThreads = 0;
+        private OrtSession.SessionOptions.OptLevel optLevel = OrtSession.SessionOptions.OptLevel.ALL_OPT;
+        private boolean parallelExecution = false;
+        private boolean cpuArena = true;
+        private boolean memoryPattern = true;
+        private Provider provider = Provider.CPU;
+
+        public Builder setIntraOpThreads(int threads) {
+            this.intraOpThreads = Math.max(threads, 0);
+            return this;
+        }
+
+        public Builder setInterOpThreads(int threads) {
+            this.interOpThreads = Math.max(threads, 0);
+            return this;
+        }
+
+        public Builder setOptLevel(OrtSession.SessionOptions.OptLevel optLevel) {
+            if (optLevel != null) {
+                this.optLevel = optLevel;
+            }
+            return this;
+        }
+
+        public Builder setParallelExecution(boolean parallel) {
+            this.parallelExecution = parallel;
+            return this;
+        }
+
+        /** Арена CPU ускоряет повторные выделения ценой удержания памяти между вызовами. */
+        public Builder setCpuArena(boolean enabled) {
+            this.cpuArena = enabled;
+            return this;
+        }
+
+        public Builder setMemoryPattern(boolean enabled) {
+            this.memoryPattern = enabled;
+            return this;
+        }
+
+        public Builder setProvider(Provider provider) {
+            if (provider != null) {
+                this.provider = provider;
+            }
+            return this;
+        }
+
+        public PredictorConfig build() {
+            return new PredictorConfig(this);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.parkinsons_disease_identifier;
+
+import ai.onnxruntime.MapInfo;
+import ai.onnxruntime.NodeInfo;
+import ai.onnxruntime.OnnxJavaType;
+import ai.onnxruntime.OnnxMap;
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.SequenceInfo;
+import ai.onnxruntime.TensorInfo;
+import ai.onnxruntime.ValueInfo;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение вероятности болезни из выхода модели. Конкретная реализация выбирается один раз
+ * по метаданным сессии ({@link #detect}), поэтому при предсказании не нужно перебирать форматы выхода.
+ */
+public abstract class ProbabilityReader {
+
+    /** Имя выхода модели, который нужно запрашивать у session.run. */
+    final String outputName;
+
+    ProbabilityReader(String outputName) {
+        this.outputName = outputName;
+    }
+
+    /**
+     * Записать вероятности строк в {@code out[0 .. rowCount)}.
+     *
+     * @return false, если значение выхода не соответствует ожидаемому формату
+     */
+    abstract boolean read(OnnxValue value, int rowCount, double[] out) throws OrtException;
+
+    /**
+     * Выбрать способ чтения по описанию выходов сессии. Предпочитается «сырой» тензор вероятностей
+     * (float [N], [N, 1] или [N, 2]; последняя размерность может быть символьной и выясняется при чтении),
+     * затем ZipMap (последовательность словарей класс → вероятность).
+     *
+     * @return null, если ни один выход не подходит
+     */
+    static ProbabilityReader detect(Map<String, NodeInfo> outputs, boolean class1IsDisease) {
+        Tensor dynamic = null;
+        for (Map.Entry<String, NodeInfo> e : outputs.entrySet()) {
+            ValueInfo info = e.getValue().getInfo();
+            if (info instanceof TensorInfo && ((TensorInfo) info).type == OnnxJavaType.FLOAT) {
+                long[] shape = ((TensorInfo) info).getShape();
+                if (shape.length == 0) {
+                    continue;
+                }
+                long columns = shape.length >= 2 ? shape[shape.length - 1] : 1;
+                if (columns == 1 || columns == 2) {
+                    return new Tensor(e.getKey(), shape.length, (int) columns, class1IsDisease);
+                }
+                if (columns < 0 && dynamic == null) {
+                    dynamic = new Tensor(e.getKey(), shape.length, 0, class1IsDisease);
+                }
+            }
+        }
+        if (dynamic != null) {
+            return dynamic;
+        }
+        for (Map.Entry<String, NodeInfo> e : outputs.entrySet()) {
+            ValueInfo info = e.getValue().getInfo();
+            if (info instanceof SequenceInfo && ((SequenceInfo) info).isSequenceOfMaps()) {
+                MapInfo mapInfo = ((SequenceInfo) info).mapInfo;
+                Object classKey = mapInfo != null && mapInfo.keyType == OnnxJavaType.STRING ? "1" : (Object) 1L;
+                return new ZipMap(e.getKey(), classKey, class1IsDisease);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Тензор вероятностей float [N] или [N, columns]. При двух столбцах берётся столбец класса болезни,
+     * при одном — вероятность класса 1 (инвертируется, если болезнь — класс 0).
+     */
+    static final class Tensor extends ProbabilityReader {
+
+        /** Ранг выхода по метаданным сессии. */
+        final int rank;
+        /** Число столбцов; 0 — символьная размерность, определяется по размеру выхода при чтении. */
+        final int columns;
+        private final boolean class1IsDisease;
+
+        Tensor(String outputName, int rank, int columns, boolean class1IsDisease) {
+            super(outputName);
+            this.rank = rank;
+            this.columns = columns;
+            this.class1IsDisease = class1IsDisease;
+        }
+
+        /**
+         * Форма выхода для одной строки, под которую можно заранее выделить закреплённый тензор;
+         * null — форма заранее неизвестна (символьная размерность или ранг больше 2).
+         */
+        long[] singleRowShape() {
+            if (columns == 0 || rank > 2) {
+                return null;
+            }
+            return rank == 1 ? new long[]{1} : new long[]{1, columns};
+        }
+
+        @Override
+        boolean read(OnnxValue value, int rowCount, double[] out) {
+            if (!(value instanceof OnnxTensor)) {
+                return false;
+            }
+            return read(((OnnxTensor) value).getFloatBuffer(), rowCount, out);
+        }
+
+        /** Чтение напрямую из буфера (в том числе закреплённого выходного тензора) без копирования в массивы. */
+        boolean read(FloatBuffer values, int rowCount, double[] out) {
+            if (values == null || rowCount <= 0) {
+                return false;
+            }
+            int n = columns;
+            if (n == 0) {
+                n = values.limit() / rowCount;
+                if (values.limit() != rowCount * n) {
+                    return false;
+                }
+            }
+            if ((n != 1 && n != 2) || values.limit() < rowCount * n) {
+                return false;
+            }
+            int column = n == 2 && class1IsDisease ? 1 : 0;
+            boolean invert = n == 1 && !class1IsDisease;
+            for (int i = 0; i < rowCount; i++) {
+                float p = values.get(i * n + column);
+                out[i] = invert ? 1.0 - p : p;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Tensor[" + outputName + ", rank=" + rank + ", columns=" + (columns == 0 ? "?" : columns) + "]";
+        }
+    }
+
+    /** Выход ZipMap (CatBoost по умолчанию): список словарей {класс: вероятность} по одному на строку. */
+    static final class ZipMap extends ProbabilityReader {
+
+        private final Object classKey;
+        private final boolean class1IsDisease;
+
+        ZipMap(String outputName, Object classKey, boolean class1IsDisease) {
+            super(outputName);
+            this.classKey = classKey;
+            this.class1IsDisease = class1IsDisease;
+        }
+
+        @Override
+        boolean read(OnnxValue value, int rowCount, double[] out) throws OrtException {
+            Object seq = value.getValue();
+            if (!(seq instanceof List) || ((List<?>) seq).size() != rowCount) {
+                return false;
+            }
+            List<?> rows = (List<?>) seq;
+            for (int i = 0; i < rowCount; i++) {
+                Object item = rows.get(i);
+                Object map = item instanceof OnnxMap ? ((OnnxMap) item).getValue() : item;
+                if (!(map instanceof Map)) {
+                    return false;
+                }
+                Object p1 = ((Map<?, ?>) map).get(classKey);
+                if (!(p1 instanceof Number)) {
+                    return false;
+                }
+                double p = ((Number) p1).doubleValue();
+                out[i] = class1IsDisease ? p : 1.0 - p;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "ZipMap[" + outputName + "]";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.parkinsons_disease_identifier;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Проверка записи до анализа по статистике {@link LevelMeter} и длительности голоса
+ * ({@link VoiceActivityDetector}): слишком короткие, тихие, перегруженные или шумные записи Praat
+ * обрабатывает впустую (или не находит в них F0 вовсе). В зависимости от настройки такая запись
+ * только помечается или отклоняется — кнопка «Анализ» остаётся недоступной.
+ * Пороги задаются на экране настроек (разные микрофоны дают разный уровень и шум), по умолчанию — DEFAULT_*.
+ */
+public final class RecordingQualityGate {
+
+    private static final String PREFS_NAME = "SettingsPrefs";
+    static final String KEY_REJECT = "quality_gate_reject";
+    static final String KEY_MIN_VOICED_SECONDS = "quality_min_voiced_seconds";
+    static final String KEY_MIN_LEVEL_DB = "quality_min_level_db";
+    static final String KEY_MAX_CLIPPED_FRACTION = "quality_max_clipped_fraction";
+    static final String KEY_MIN_SNR_DB = "quality_min_snr_db";
+
+    public static final double DEFAULT_MIN_VOICED_SECONDS = 1.0;
+    /** Уровень самого громкого блока; тише — голос теряется в шуме квантования и АРУ. */
+    public static final double DEFAULT_MIN_LEVEL_DB = -45.0;
+    /** 0,1% клиппированных отсчётов уже заметно искажает shimmer. */
+    public static final double DEFAULT_MAX_CLIPPED_FRACTION = 0.001;
+    public static final double DEFAULT_MIN_SNR_DB = 15.0;
+
+    public enum Verdict {
+        OK(R.string.status_recording_completed),
+        TOO_SHORT(R.string.quality_too_short),
+        CLIPPED(R.string.quality_clipped),
+        TOO_QUIET(R.string.quality_too_quiet),
+        NOISY(R.string.quality_noisy);
+
+        /** Текст для статуса и сообщения пользователю. */
+        public final int messageRes;
+
+        Verdict(int messageRes) {
+            this.messageRes = messageRes;
+        }
+    }
+
+    private final double minVoicedSeconds;
+    private final double minLevelDb;
+    private final double maxClippedFraction;
+    private final double minSnrDb;
+    private final boolean reject;
+
+    public RecordingQualityGate(double minVoicedSeconds, double minLevelDb, double maxClippedFraction,
+                                double minSnrDb, boolean reject) {
+        this.minVoicedSeconds = minVoicedSeconds;
+        this.minLevelDb = minLevelDb;
+        this.maxClippedFraction = maxClippedFraction;
+        this.minSnrDb = minSnrDb;
+        this.reject = reject;
+    }
+
+    /** Пороги и режим (отклонять или только помечать, по умолчанию помечать) — из настроек. */
+    public static RecordingQualityGate fromSettings(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        return new RecordingQualityGate(
+                prefs.getFloat(KEY_MIN_VOICED_SECONDS, (float) DEFAULT_MIN_VOICED_SECONDS),
+                prefs.getFloat(KEY_MIN_LEVEL_DB, (float) DEFAULT_MIN_LEVEL_DB),
+                prefs.getFloat(KEY_MAX_CLIPPED_FRACTION, (float) DEFAULT_MAX_CLIPPED_FRACTION),
+                prefs.getFloat(KEY_MIN_SNR_DB, (float) DEFAULT_MIN_SNR_DB),
+                prefs.getBoolean(KEY_REJECT, false));
+    }
+
+    /** Допустимая доля клиппированных отсчётов — и для итоговой проверки, и для подсказки во время записи. */
+    public double getMaxClippedFraction() {
+        return maxClippedFraction;
+    }
+
+    /**
+     * @param voicedSeconds длительность голосовых участков (запись после обрезки тишины)
+     * @return первая найденная проблема или {@link Verdict#OK}
+     */
+    public Verdict check(LevelMeter meter, double voicedSeconds) {
+        if (voicedSeconds < minVoicedSeconds) {
+            return Verdict.TOO_SHORT;
+        }
+        if (meter.getClippedFraction() > maxClippedFraction) {
+            return Verdict.CLIPPED;
+        }
+        if (meter.getLoudestDb() < minLevelDb) {
+            return Verdict.TOO_QUIET;
+        }
+        if (meter.getSnrDb() < minSnrDb) {
+            return Verdict.NOISY;
+        }
+        return Verdict.OK;
+    }
+
+    /** Запись с этим вердиктом не допускается к анализу. */
+    public boolean rejects(Verdict verdict) {
+        return reject && verdict != Verdict.OK;
+    }
+}
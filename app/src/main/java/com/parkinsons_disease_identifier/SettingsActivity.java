@@ -5,8 +5,14 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.Button;
 import android.widget.CompoundButton;
+import android.widget.Spinner;
+
+import ai.onnxruntime.OrtSession;
+
+import java.util.Arrays;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SwitchCompat;
@@ -16,7 +22,33 @@ public class SettingsActivity extends AppCompatActivity {
     private static final String PREFS_NAME = "SettingsPrefs";
     private static final String KEY_LANGUAGE = "language_en";
 
+    // Значения пунктов списков порогов проверки записи (порядок как в массивах quality_*_entries)
+    private static final double[] QUALITY_MIN_VOICED_SECONDS = {0.5, 1.0, 2.0, 3.0};
+    private static final double[] QUALITY_MIN_LEVEL_DB = {-55.0, -45.0, -35.0};
+    private static final double[] QUALITY_MAX_CLIPPED_FRACTION = {0.0001, 0.001, 0.01};
+    private static final double[] QUALITY_MIN_SNR_DB = {10.0, 15.0, 20.0, 25.0};
+
+    // Значения пунктов списков ONNX Runtime (порядок как в массивах ort_*_entries)
+    private static final int[] ORT_THREADS = {0, 1, 2, 4};
+    private static final OrtSession.SessionOptions.OptLevel[] ORT_OPT_LEVELS = {
+            OrtSession.SessionOptions.OptLevel.NO_OPT,
+            OrtSession.SessionOptions.OptLevel.BASIC_OPT,
+            OrtSession.SessionOptions.OptLevel.EXTENDED_OPT,
+            OrtSession.SessionOptions.OptLevel.ALL_OPT
+    };
+    /** Потоки между операторами; 0 — последовательное выполнение. */
+    private static final int[] ORT_INTER_THREADS = {0, 2, 4};
+
     private SwitchCompat switchLanguage;
+    private SwitchCompat switchQualityGate;
+    private SwitchCompat switchTreeBackend;
+    private Spinner spinnerOrtProvider;
+    private Spinner spinnerOrtThreads;
+    private Spinner spinnerOrtOptLevel;
+    private Spinner spinnerOrtParallel;
+    private SwitchCompat switchOrtCpuArena;
+    private SwitchCompat switchOrtMemoryPattern;
+    private OnnxSessionRegistry registry;
     private SharedPreferences prefs;
 
     @Override
@@ -32,6 +64,14 @@ public class SettingsActivity extends AppCompatActivity {
 
         prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
         switchLanguage = findViewById(R.id.switch_language);
+        switchQualityGate = findViewById(R.id.switch_quality_gate_reject);
+        switchTreeBackend = findViewById(R.id.switch_tree_backend);
+        spinnerOrtProvider = findViewById(R.id.spinner_ort_provider);
+        spinnerOrtThreads = findViewById(R.id.spinner_ort_threads);
+        spinnerOrtOptLevel = findViewById(R.id.spinner_ort_opt_level);
+        spinnerOrtParallel = findViewById(R.id.spinner_ort_parallel);
+        switchOrtCpuArena = findViewById(R.id.switch_ort_cpu_arena);
+        switchOrtMemoryPattern = findViewById(R.id.switch_ort_memory_pattern);
         Button btnOk = findViewById(R.id.btn_ok);
 
         // По умолчанию английский выключен (русский интерфейс)
@@ -45,6 +85,39 @@ public class SettingsActivity extends AppCompatActivity {
             }
         });
 
+        // Некачественные записи по умолчанию только помечаются, анализ остаётся доступен
+        switchQualityGate.setChecked(prefs.getBoolean(RecordingQualityGate.KEY_REJECT, false));
+        switchQualityGate.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                prefs.edit().putBoolean(RecordingQualityGate.KEY_REJECT, isChecked).apply();
+            }
+        });
+
+        setupQualitySpinner(R.id.spinner_quality_min_voiced, RecordingQualityGate.KEY_MIN_VOICED_SECONDS,
+                QUALITY_MIN_VOICED_SECONDS, RecordingQualityGate.DEFAULT_MIN_VOICED_SECONDS);
+        setupQualitySpinner(R.id.spinner_quality_min_level, RecordingQualityGate.KEY_MIN_LEVEL_DB,
+                QUALITY_MIN_LEVEL_DB, RecordingQualityGate.DEFAULT_MIN_LEVEL_DB);
+        setupQualitySpinner(R.id.spinner_quality_max_clipped, RecordingQualityGate.KEY_MAX_CLIPPED_FRACTION,
+                QUALITY_MAX_CLIPPED_FRACTION, RecordingQualityGate.DEFAULT_MAX_CLIPPED_FRACTION);
+        setupQualitySpinner(R.id.spinner_quality_min_snr, RecordingQualityGate.KEY_MIN_SNR_DB,
+                QUALITY_MIN_SNR_DB, RecordingQualityGate.DEFAULT_MIN_SNR_DB);
+
+        // Деревья CatBoost на Java вместо ONNX Runtime; без JSON-выгрузки модели реестр остаётся на ONNX
+        registry = OnnxSessionRegistry.getInstance(this);
+        switchTreeBackend.setChecked(registry.getBackend() == OnnxSessionRegistry.Backend.CATBOOST_JAVA);
+        switchTreeBackend.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                OnnxSessionRegistry.Backend backend = isChecked
+                        ? OnnxSessionRegistry.Backend.CATBOOST_JAVA : OnnxSessionRegistry.Backend.ONNX;
+                prefs.edit().putString(OnnxSessionRegistry.KEY_BACKEND, backend.name()).apply();
+                registry.setBackend(backend);
+            }
+        });
+
+        setupOrtSettings();
+
         btnOk.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -55,4 +128,93 @@ public class SettingsActivity extends AppCompatActivity {
             }
         });
     }
+
+    /** Порог проверки записи: выбранное значение сохраняется сразу и действует со следующей записи. */
+    private void setupQualitySpinner(int spinnerId, final String key, final double[] values, double defaultValue) {
+        Spinner spinner = findViewById(spinnerId);
+        spinner.setSelection(nearestIndex(values, prefs.getFloat(key, (float) defaultValue)), false);
+        spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                prefs.edit().putFloat(key, (float) values[position]).apply();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+    }
+
+    /** Показать текущие настройки ONNX Runtime и применять изменения сразу (к вновь создаваемым сессиям). */
+    private void setupOrtSettings() {
+        PredictorConfig config = registry.getConfig();
+        spinnerOrtProvider.setSelection(config.provider.ordinal(), false);
+        spinnerOrtThreads.setSelection(indexOf(ORT_THREADS, config.intraOpThreads), false);
+        spinnerOrtOptLevel.setSelection(Math.max(Arrays.asList(ORT_OPT_LEVELS).indexOf(config.optLevel), 0), false);
+        spinnerOrtParallel.setSelection(config.parallelExecution ? indexOf(ORT_INTER_THREADS, config.interOpThreads) : 0, false);
+        switchOrtCpuArena.setChecked(config.cpuArena);
+        switchOrtMemoryPattern.setChecked(config.memoryPattern);
+
+        AdapterView.OnItemSelectedListener onSelected = new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                applyOrtSettings();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        };
+        CompoundButton.OnCheckedChangeListener onChecked = new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                applyOrtSettings();
+            }
+        };
+        spinnerOrtProvider.setOnItemSelectedListener(onSelected);
+        spinnerOrtThreads.setOnItemSelectedListener(onSelected);
+        spinnerOrtOptLevel.setOnItemSelectedListener(onSelected);
+        spinnerOrtParallel.setOnItemSelectedListener(onSelected);
+        switchOrtCpuArena.setOnCheckedChangeListener(onChecked);
+        switchOrtMemoryPattern.setOnCheckedChangeListener(onChecked);
+    }
+
+    private void applyOrtSettings() {
+        int interThreads = ORT_INTER_THREADS[spinnerOrtParallel.getSelectedItemPosition()];
+        PredictorConfig config = registry.getConfig().toBuilder()
+                .setProvider(PredictorConfig.Provider.values()[spinnerOrtProvider.getSelectedItemPosition()])
+                .setIntraOpThreads(ORT_THREADS[spinnerOrtThreads.getSelectedItemPosition()])
+                .setOptLevel(ORT_OPT_LEVELS[spinnerOrtOptLevel.getSelectedItemPosition()])
+                .setParallelExecution(interThreads > 0)
+                .setInterOpThreads(interThreads)
+                .setCpuArena(switchOrtCpuArena.isChecked())
+                .setMemoryPattern(switchOrtMemoryPattern.isChecked())
+                .build();
+        // Spinner сообщает и о начальном выборе — незанятые сессии закрываются только при реальном изменении
+        if (!config.equals(registry.getConfig())) {
+            config.save(this);
+            registry.setConfig(config);
+        }
+    }
+
+    /** Позиция значения в списке; незнакомое значение (задано раньше вручную) — первый пункт. */
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /** Позиция ближайшего значения в списке (сохранённое значение float могло округлиться). */
+    private static int nearestIndex(double[] values, double value) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (Math.abs(values[i] - value) < Math.abs(values[best] - value)) {
+                best = i;
+            }
+        }
+        return best;
+    }
 }
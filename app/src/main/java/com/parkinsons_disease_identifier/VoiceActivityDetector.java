@@ -0,0 +1,176 @@
+package com.parkinsons_disease_identifier;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Детектор голосовой активности по энергии и числу переходов через ноль в кадрах по 10 мс.
+ * Работает в потоке записи как {@link WavRecorder.CaptureListener} — отсчёты читаются без сдвига position
+ * и передаются следующему получателю, если он задан, — или по уже загруженной
+ * записи ({@link #trimSilence}).
+ * <p>
+ * Порог считается после записи по распределению энергий кадров (шум — 10-й процентиль), поэтому не зависит
+ * от усиления микрофона. В извлечение признаков идут только голосовые участки: тишина в начале и в конце
+ * отбрасывается, длинные паузы сокращаются — Praat обрабатывает меньше кадров, а тишина не занижает
+ * минимум интенсивности (INTENSITY_RANGE).
+ */
+public final class VoiceActivityDetector implements WavRecorder.CaptureListener {
+
+    private static final int FRAME_MS = 10;
+    private static final double NOISE_PERCENTILE = 0.1;
+    /** Порог выше шума на такую долю динамического диапазона, но не меньше {@link #MIN_MARGIN_DB}. */
+    private static final double THRESHOLD_FRACTION = 0.3;
+    private static final double MIN_MARGIN_DB = 6.0;
+    /** При меньшем разбросе энергий тишины в записи нет — обрезать нечего. */
+    private static final double MIN_DYNAMIC_RANGE_DB = 12.0;
+    /** Глухие согласные: тише порога не больше чем на столько, зато с частыми переходами через ноль. */
+    private static final double UNVOICED_MARGIN_DB = 10.0;
+    private static final double UNVOICED_ZCR = 0.25;
+    /** Участок короче — щелчок, а не голос. */
+    private static final int MIN_SEGMENT_MS = 50;
+    /** Паузы короче остаются как есть. */
+    private static final int MIN_PAUSE_MS = 200;
+    /**
+     * Запас тишины вокруг участка. Сокращённая пауза (2 × запас) длиннее максимального периода Praat (20 мс):
+     * цепочка импульсов на стыке рвётся, и стык не попадает в jitter/shimmer.
+     */
+    private static final int PAD_MS = 30;
+
+    private final int sampleRate;
+    private final int frameSize;
+    private final WavRecorder.CaptureListener next;
+
+    private float[] frameEnergyDb = new float[256];
+    private float[] frameZcr = new float[256];
+    private int frameCount;
+    private long totalSamples;
+
+    // Незаконченный кадр
+    private double sumSquares;
+    private int crossings;
+    private int filled;
+    private boolean lastPositive;
+
+    /** @param next получатель, которому передаются те же отсчёты (null — нет) */
+    public VoiceActivityDetector(int sampleRate, WavRecorder.CaptureListener next) {
+        this.sampleRate = sampleRate;
+        this.frameSize = sampleRate * FRAME_MS / 1000;
+        this.next = next;
+    }
+
+    /** Оставить в записи только голосовые участки (для загруженных файлов). */
+    public static short[] trimSilence(short[] samples, int sampleRate) {
+        VoiceActivityDetector detector = new VoiceActivityDetector(sampleRate, null);
+        detector.process(samples, 0, samples.length);
+        return trim(samples, detector.segments());
+    }
+
+    @Override
+    public void onSamples(FloatBuffer samples) {
+        int limit = samples.limit();
+        for (int i = samples.position(); i < limit; i++) {
+            add(samples.get(i));
+        }
+        if (next != null) {
+            next.onSamples(samples);
+        }
+    }
+
+    /** Обработать отсчёты 16-bit PCM (запись, уже находящаяся в памяти). */
+    public void process(short[] samples, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            add(samples[i] / 32768f);
+        }
+    }
+
+    private void add(float value) {
+        sumSquares += value * value;
+        boolean positive = value >= 0;
+        if (totalSamples > 0 && positive != lastPositive) {
+            crossings++;
+        }
+        lastPositive = positive;
+        totalSamples++;
+        if (++filled == frameSize) {
+            if (frameCount == frameEnergyDb.length) {
+                frameEnergyDb = Arrays.copyOf(frameEnergyDb, frameCount * 2);
+                frameZcr = Arrays.copyOf(frameZcr, frameCount * 2);
+            }
+            frameEnergyDb[frameCount] = (float) (10.0 * Math.log10(sumSquares / frameSize + 1e-10));
+            frameZcr[frameCount] = (float) crossings / frameSize;
+            frameCount++;
+            sumSquares = 0;
+            crossings = 0;
+            filled = 0;
+        }
+    }
+
+    /**
+     * Границы голосовых участков (с запасом) в отсчётах: пары [начало, конец) по возрастанию.
+     * Если тишину выделить не удалось (или голоса нет вовсе), — вся запись одним участком.
+     */
+    public int[] segments() {
+        int[] whole = {0, (int) totalSamples};
+        if (frameCount == 0) {
+            return whole;
+        }
+        float[] sorted = Arrays.copyOf(frameEnergyDb, frameCount);
+        Arrays.sort(sorted);
+        double noise = sorted[(int) (NOISE_PERCENTILE * (frameCount - 1))];
+        double range = sorted[frameCount - 1] - noise;
+        if (range < MIN_DYNAMIC_RANGE_DB) {
+            return whole;
+        }
+        double threshold = noise + Math.max(MIN_MARGIN_DB, THRESHOLD_FRACTION * range);
+        double unvoicedThreshold = Math.max(threshold - UNVOICED_MARGIN_DB, noise + MIN_MARGIN_DB);
+
+        int minPause = MIN_PAUSE_MS / FRAME_MS;
+        int minSegment = MIN_SEGMENT_MS / FRAME_MS;
+        int pad = PAD_MS * sampleRate / 1000;
+        int[] result = new int[8];
+        int n = 0;
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i <= frameCount; i++) {
+            boolean active = i < frameCount && (frameEnergyDb[i] >= threshold
+                    || frameEnergyDb[i] >= unvoicedThreshold && frameZcr[i] >= UNVOICED_ZCR);
+            if (active && start >= 0 && i - end < minPause) {
+                end = i + 1; // пауза слишком короткая — продолжение участка
+                continue;
+            }
+            if (!active && i < frameCount) {
+                continue;
+            }
+            // Новый участок (или конец записи): закрыть предыдущий
+            if (start >= 0 && end - start >= minSegment) {
+                if (n + 2 > result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[n++] = (int) Math.max(0, (long) start * frameSize - pad);
+                result[n++] = (int) Math.min(totalSamples, (long) end * frameSize + pad);
+            }
+            start = i;
+            end = i + 1;
+        }
+        return n == 0 ? whole : Arrays.copyOf(result, n);
+    }
+
+    /** Склеить участки записи (см. {@link #segments()}); без изменений — исходный массив. */
+    public static short[] trim(short[] samples, int[] segments) {
+        int total = 0;
+        for (int i = 0; i < segments.length; i += 2) {
+            total += Math.max(0, Math.min(segments[i + 1], samples.length) - segments[i]);
+        }
+        if (total >= samples.length) {
+            return samples;
+        }
+        short[] result = new short[total];
+        int position = 0;
+        for (int i = 0; i < segments.length; i += 2) {
+            int count = Math.max(0, Math.min(segments[i + 1], samples.length) - segments[i]);
+            System.arraycopy(samples, segments[i], result, position, count);
+            position += count;
+        }
+        return result;
+    }
+}
@@ -21,19 +21,16 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
-import com.chaquo.python.Python;
-import com.chaquo.python.PyObject;
-
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class VowelPhonationActivity extends AppCompatActivity {
 
     private static final String TAG = "VowelPhonationActivity";
+    private static final long LEVEL_UPDATE_MS = 200;
     private static final String AUDIO_FILE_NAME = "vowel_phonation_recording.wav";
 
     private Button btnRecord;
@@ -47,6 +44,25 @@ public class VowelPhonationActivity extends AppCompatActivity {
     private boolean fileJustLoaded = false;
 
     private WavRecorder wavRecorder;
+    private short[] recordedSamples; // Последняя запись с микрофона: анализируется прямо из памяти
+    private VoiceActivityDetector voiceActivity; // Голосовые участки текущей записи
+    private RecordingQualityGate qualityGate; // Пороги качества текущей записи (из настроек на момент начала)
+    // Текущий уровень записи в строке статуса (значения считает поток захвата)
+    private final Runnable levelUpdater = new Runnable() {
+        @Override
+        public void run() {
+            if (!isRecording || wavRecorder == null || qualityGate == null) {
+                return;
+            }
+            LevelMeter meter = wavRecorder.getLevelMeter();
+            if (meter.getClippedFraction() > qualityGate.getMaxClippedFraction()) {
+                tvStatus.setText(R.string.status_recording_clipping);
+            } else {
+                tvStatus.setText(getString(R.string.status_recording_level, Math.round(meter.getRmsDb())));
+            }
+            tvStatus.postDelayed(this, LEVEL_UPDATE_MS);
+        }
+    };
     private File audioFile;
     private Map<String, Object> lastFeatures = null; // Сохраняем последние характеристики
     
@@ -107,6 +123,7 @@ public class VowelPhonationActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        tvStatus.removeCallbacks(levelUpdater);
         if (wavRecorder != null) {
             wavRecorder.stop();
         }
@@ -148,48 +165,45 @@ public class VowelPhonationActivity extends AppCompatActivity {
             @Override
             public void onClick(View v) {
                 setAnalyzingState(true);
-                // Даём интерфейсу отрисоваться, затем анализ в фоне
-                v.post(new Runnable() {
-                    @Override
-                    public void run() {
-                        new Thread(new Runnable() {
-                            @Override
-                            public void run() {
-                                final double probability = performAnalysis();
-                                final Map<String, Object> features = lastFeatures;
-                                runOnUiThread(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        Intent intent = new Intent(VowelPhonationActivity.this, AnalysisResultsActivity.class);
-                                        intent.putExtra("probability", probability);
-                                        // Передаём характеристики
-                                        if (features != null) {
-                                            for (Map.Entry<String, Object> entry : features.entrySet()) {
-                                                Object value = entry.getValue();
-                                                if (value instanceof Double) {
-                                                    intent.putExtra(entry.getKey(), (Double) value);
-                                                } else if (value instanceof Float) {
-                                                    intent.putExtra(entry.getKey(), (Float) value);
-                                                } else if (value instanceof Integer) {
-                                                    intent.putExtra(entry.getKey(), (Integer) value);
-                                                } else if (value instanceof Long) {
-                                                    intent.putExtra(entry.getKey(), (Long) value);
-                                                } else if (value instanceof String) {
-                                                    intent.putExtra(entry.getKey(), (String) value);
-                                                }
-                                            }
-                                        }
-                                        startActivity(intent);
-                                    }
-                                });
-                            }
-                        }).start();
-                    }
-                });
+                // Анализ идёт в фоне, результат открывается в UI-потоке. Для записи из памяти экрану подробностей
+                // нужен её WAV — дожидаемся фонового сохранения (обычно оно завершается задолго до конца анализа);
+                // импортированный файл уже на месте
+                CompletableFuture<File> archive = recordedSamples != null && wavRecorder != null
+                        ? wavRecorder.getArchive() : CompletableFuture.completedFuture(null);
+                performAnalysis().thenCombine(archive, (probability, file) -> probability)
+                        .thenAcceptAsync(probability -> openResults(probability),
+                                ContextCompat.getMainExecutor(VowelPhonationActivity.this));
             }
         });
     }
 
+    private void openResults(double probability) {
+        Map<String, Object> features = lastFeatures;
+        Intent intent = new Intent(VowelPhonationActivity.this, AnalysisResultsActivity.class);
+        intent.putExtra("probability", probability);
+        // Передаём характеристики
+        if (features != null) {
+            for (Map.Entry<String, Object> entry : features.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof Double) {
+                    intent.putExtra(entry.getKey(), (Double) value);
+                } else if (value instanceof Float) {
+                    intent.putExtra(entry.getKey(), (Float) value);
+                } else if (value instanceof Integer) {
+                    intent.putExtra(entry.getKey(), (Integer) value);
+                } else if (value instanceof Long) {
+                    intent.putExtra(entry.getKey(), (Long) value);
+                } else if (value instanceof String) {
+                    intent.putExtra(entry.getKey(), (String) value);
+                }
+            }
+        }
+        // Путь к записи — чтобы экран подробностей мог досчитать полный набор характеристик
+        intent.putExtra(DetailsActivity.EXTRA_AUDIO_PATH, getAudioFilePath());
+        intent.putExtra(DetailsActivity.EXTRA_ANALYSIS_MODE, DetailsActivity.MODE_VOICE);
+        startActivity(intent);
+    }
+
     private void toggleRecording() {
         if (isRecording) {
             // Останавливаем запись
@@ -212,10 +226,14 @@ public class VowelPhonationActivity extends AppCompatActivity {
             if (wavRecorder == null) {
                 wavRecorder = new WavRecorder();
             }
+            qualityGate = RecordingQualityGate.fromSettings(this);
+            voiceActivity = new VoiceActivityDetector(WavRecorder.SAMPLE_RATE_HZ, null);
+            wavRecorder.setCaptureListener(voiceActivity);
             wavRecorder.start(audioFile);
             isRecording = true;
             btnRecord.setText(R.string.btn_stop_recording);
             tvStatus.setText(R.string.status_recording);
+            tvStatus.postDelayed(levelUpdater, LEVEL_UPDATE_MS);
             Log.d(TAG, "Запись начата: " + audioFile.getAbsolutePath());
         } catch (IOException e) {
             Log.e(TAG, "Ошибка при начале записи WAV", e);
@@ -227,26 +245,45 @@ public class VowelPhonationActivity extends AppCompatActivity {
     }
 
     private void stopRecording() {
+        tvStatus.removeCallbacks(levelUpdater);
+        recordedSamples = null;
+        RecordingQualityGate.Verdict verdict = RecordingQualityGate.Verdict.OK;
         if (wavRecorder != null) {
             wavRecorder.stop();
+            if (wavRecorder.getSampleCount() > 0) {
+                // В анализ идут только голосовые участки: тишина по краям и длинные паузы отрезаны
+                int[] segments = voiceActivity.segments();
+                recordedSamples = VoiceActivityDetector.trim(wavRecorder.getSamples(), segments);
+                verdict = qualityGate.check(wavRecorder.getLevelMeter(),
+                        (double) recordedSamples.length / WavRecorder.SAMPLE_RATE_HZ);
+                if (verdict != RecordingQualityGate.Verdict.OK) {
+                    Log.w(TAG, "Качество записи: " + verdict);
+                }
+                if (qualityGate.rejects(verdict)) {
+                    recordedSamples = null;
+                }
+            }
+            voiceActivity = null;
             Log.d(TAG, "Запись остановлена");
         }
         isRecording = false;
         btnRecord.setText(R.string.btn_start_recording);
 
-        if (audioFile != null && audioFile.exists() && audioFile.length() > WavRecorder.WAV_HEADER_SIZE) {
-            tvStatus.setText(R.string.status_recording_completed);
+        if (recordedSamples != null) {
+            // Сомнительная запись помечается в статусе, но анализ остаётся доступен
+            tvStatus.setText(verdict.messageRes);
             hasRecording = true;
             btnAnalyze.setEnabled(true);
             btnAnalyze.setAlpha(1.0f);
-            Log.d(TAG, "Аудиофайл сохранен: " + audioFile.getAbsolutePath() + " (размер: " + audioFile.length() + " байт)");
+            Log.d(TAG, "Запись в памяти: " + recordedSamples.length + " отсчётов голоса, WAV сохраняется в фоне");
         } else {
             tvStatus.setText(R.string.status_ready);
             hasRecording = false;
             if (audioFile != null && audioFile.exists()) {
                 audioFile.delete();
             }
-            Toast.makeText(this, getString(R.string.toast_record_failed), Toast.LENGTH_SHORT).show();
+            int message = verdict != RecordingQualityGate.Verdict.OK ? verdict.messageRes : R.string.toast_record_failed;
+            Toast.makeText(this, getString(message), Toast.LENGTH_SHORT).show();
         }
     }
 
@@ -291,40 +328,77 @@ public class VowelPhonationActivity extends AppCompatActivity {
         btnCancel.setAlpha(1.0f);
         
         // Удаляем предыдущий аудиофайл, если он был сохранен
+        recordedSamples = null;
         deleteAudioFile();
     }
 
     /**
-     * Загрузка аудио из выбранного URI (копирование в файл приложения)
+     * Загрузка аудио из выбранного URI в файл приложения. Импорт идёт в фоне: WAV приводится к формату
+     * собственной записи (моно, 16 бит, {@link WavRecorder#SAMPLE_RATE_HZ}), прочие форматы копируются как есть
      */
     private void loadAudioFromUri(Uri uri) {
         if (isRecording) {
             stopRecording();
         }
+        recordedSamples = null;
+        hasRecording = false;
         audioFile = new File(getFilesDir(), AUDIO_FILE_NAME);
-        try (InputStream in = getContentResolver().openInputStream(uri);
-             FileOutputStream out = new FileOutputStream(audioFile)) {
-            byte[] buf = new byte[8192];
-            int len;
-            while ((len = in.read(buf)) > 0) {
-                out.write(buf, 0, len);
-            }
+        File target = audioFile;
+        // Результат выбора приходит до onResume — форма не должна сброситься, пока файл импортируется
+        fileJustLoaded = true;
+        setAnalyzingState(true);
+        tvStatus.setText(R.string.status_importing_file);
+        // Поток записи прошлой записи мог ещё дописывать тот же файл — импорт начинается после его завершения
+        CompletableFuture<File> previous = wavRecorder != null
+                ? wavRecorder.getArchive() : CompletableFuture.completedFuture(null);
+        // handle, а не thenAccept: при любом сбое (SecurityException, нехватка памяти) форма разблокируется
+        previous.handle((file, error) -> target)
+                .thenApplyAsync(file -> importAudio(uri, file))
+                .handleAsync((loaded, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Ошибка загрузки аудиофайла", error);
+                    }
+                    onAudioImported(target, error == null && loaded);
+                    return null;
+                }, ContextCompat.getMainExecutor(this));
+    }
+
+    /** Фоновая часть загрузки: чтение URI и запись файла. */
+    private boolean importAudio(Uri uri, File target) {
+        try {
+            // Источник открывается повторно, если разбор заголовка WAV не удался после длинных служебных чанков
+            boolean converted = AudioImporter.importAudio(() -> {
+                InputStream in = getContentResolver().openInputStream(uri);
+                if (in == null) {
+                    throw new IOException("Не удалось открыть " + uri);
+                }
+                return in;
+            }, target, WavRecorder.SAMPLE_RATE_HZ);
+            Log.d(TAG, (converted ? "WAV приведён к формату записи: " : "Аудиофайл скопирован без изменений: ")
+                    + target.getAbsolutePath());
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Ошибка загрузки аудиофайла", e);
+            return false;
+        }
+    }
+
+    private void onAudioImported(File target, boolean loaded) {
+        isWaitingForFilePicker = false;
+        if (target != audioFile) {
+            return; // форму уже сбросили или выбрали другой файл
+        }
+        setAnalyzingState(false);
+        if (loaded) {
             hasRecording = true;
-            fileJustLoaded = true;
             tvStatus.setText(R.string.status_recording_completed);
-            btnAnalyze.setEnabled(true);
-            btnAnalyze.setAlpha(1.0f);
             Toast.makeText(this, getString(R.string.toast_file_loaded), Toast.LENGTH_SHORT).show();
-            Log.d(TAG, "Аудиофайл загружен: " + audioFile.getAbsolutePath());
-            btnAnalyze.post(() -> isWaitingForFilePicker = false);
-        } catch (IOException e) {
-            Log.e(TAG, "Ошибка загрузки аудиофайла", e);
+            Log.d(TAG, "Аудиофайл загружен: " + target.getAbsolutePath());
+        } else {
             Toast.makeText(this, getString(R.string.toast_file_load_error), Toast.LENGTH_SHORT).show();
-            if (audioFile != null && audioFile.exists()) {
-                audioFile.delete();
-            }
-            audioFile = null;
-            isWaitingForFilePicker = false;
+            deleteAudioFile();
+            btnAnalyze.setEnabled(false);
+            btnAnalyze.setAlpha(0.5f);
         }
     }
 
@@ -355,29 +429,60 @@ public class VowelPhonationActivity extends AppCompatActivity {
     }
 
     /**
-     * Анализ фонации гласных: парсер WAV (запись с микрофона) → признаки → модель голоса ONNX.
-     * @return вероятность наличия болезни Паркинсона в процентах (0.0 - 100.0)
+     * Анализ фонации гласных: запись в памяти (или загруженный WAV) → признаки → модель голоса ONNX.
+     * Признаки извлекает поток {@link AnalysisWorker}, предсказание выполняется в общем пуле.
+     * @return вероятность наличия болезни Паркинсона в процентах (0.0 - 100.0); при ошибке — 0.0
      */
-    private double performAnalysis() {
+    private CompletableFuture<Double> performAnalysis() {
+        short[] samples = recordedSamples;
         String audioFilePath = getAudioFilePath();
-        if (audioFilePath == null) {
+        if (samples == null && audioFilePath == null) {
             Log.w(TAG, "Нет записанного аудио");
-            return 0.0;
+            return CompletableFuture.completedFuture(0.0);
         }
-        Log.d(TAG, "Анализ файла (голос): " + audioFilePath);
 
-        Map<String, Object> features = getVoiceFeaturesFromPython(audioFilePath);
+        // Только признаки модели, одним вектором в порядке ModelType.featureOrder;
+        // полный набор характеристик считает DetailsActivity по запросу
+        AnalysisWorker worker = AnalysisWorker.getInstance(this);
+        CompletableFuture<double[]> features;
+        if (samples != null) {
+            // Запись с микрофона передаётся в Python из памяти, без чтения WAV
+            Log.d(TAG, "Анализ записи из памяти (голос): " + samples.length + " отсчётов");
+            features = worker.extractFeatures(samples, WavRecorder.SAMPLE_RATE_HZ,
+                    ParkinsonOnnxPredictor.ModelType.VOICE);
+        } else {
+            Log.d(TAG, "Анализ файла (голос): " + audioFilePath);
+            // WAV 16 бит моно читается в память и обрезается по голосу; другие форматы — по пути к файлу
+            features = CompletableFuture.supplyAsync(() -> WavReader.readMono16(new File(audioFilePath)))
+                    .thenCompose(pcm -> pcm != null
+                            ? worker.extractFeatures(VoiceActivityDetector.trimSilence(pcm.samples, pcm.sampleRate),
+                                    pcm.sampleRate, ParkinsonOnnxPredictor.ModelType.VOICE)
+                            : worker.extractFeatures(audioFilePath, ParkinsonOnnxPredictor.ModelType.VOICE));
+        }
+        return features
+                .thenApplyAsync(this::predict)
+                .exceptionally(e -> {
+                    Log.e(TAG, "Ошибка анализа (голос)", e);
+                    return 0.0;
+                });
+    }
+
+    /** Предсказание модели голоса по вектору признаков (null — ошибка парсера). */
+    private double predict(double[] features) {
         if (features == null) {
             lastFeatures = null;
             return 0.0;
         }
 
         // Сохраняем характеристики для передачи на форму результатов
-        lastFeatures = new HashMap<>(features);
+        lastFeatures = FeatureBridge.toMap(ParkinsonOnnxPredictor.ModelType.VOICE, features);
 
-        ParkinsonOnnxPredictor predictor = null;
+        // Сессия модели готовится заранее (AnalysisWarmup); если прогрев ещё идёт — ждём его
+        AnalysisWarmup.start(this).awaitModel(ParkinsonOnnxPredictor.ModelType.VOICE);
+        OnnxSessionRegistry registry = OnnxSessionRegistry.getInstance(this);
+        ParkinsonPredictor predictor = null;
         try {
-            predictor = new ParkinsonOnnxPredictor(this, ParkinsonOnnxPredictor.ModelType.VOICE);
+            predictor = registry.acquire(ParkinsonOnnxPredictor.ModelType.VOICE);
             double prob = predictor.predict(features);
             if (prob < 0) {
                 Log.e(TAG, "Ошибка предсказания модели");
@@ -390,33 +495,7 @@ public class VowelPhonationActivity extends AppCompatActivity {
             Log.e(TAG, "Ошибка загрузки/запуска модели голоса", e);
             return 0.0;
         } finally {
-            if (predictor != null) predictor.close();
-        }
-    }
-
-    private Map<String, Object> getVoiceFeaturesFromPython(String wavPath) {
-        try {
-            Python py = Python.getInstance();
-            PyObject module = py.getModule("audio_analysis");
-            PyObject dataPy = module.callAttr("get_voice_features", wavPath);
-            Map<PyObject, PyObject> raw = dataPy.asMap();
-            Map<String, Object> features = new HashMap<>();
-            for (Map.Entry<PyObject, PyObject> entry : raw.entrySet()) {
-                String key = entry.getKey().toString();
-                if ("FILEPATH".equals(key)) continue;
-                PyObject v = entry.getValue();
-                if (v != null) {
-                    try {
-                        features.put(key, v.toDouble());
-                    } catch (Exception e) {
-                        features.put(key, v.toString());
-                    }
-                }
-            }
-            return features;
-        } catch (Exception e) {
-            Log.e(TAG, "Ошибка вызова парсера (audio_analysis.get_voice_features)", e);
-            return null;
+            if (predictor != null) registry.release(ParkinsonOnnxPredictor.ModelType.VOICE);
         }
     }
 }
@@ -0,0 +1,79 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Запись WAV (16-bit PCM, моно) по мере поступления отсчётов: отсчёты копируются в прямой буфер и уходят
+ * в {@link FileChannel} крупными пакетами, заголовок пишется при закрытии. Без зависимостей от Android.
+ */
+public final class WavFileWriter implements Closeable {
+
+    /** 64 КБ — около 2 с при 16 кГц: один системный вызов на несколько буферов AudioRecord. */
+    public static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer batch;
+    private final int sampleRate;
+    private long dataBytes;
+    private boolean closed;
+
+    public WavFileWriter(File file, int sampleRate, int batchBytes) throws IOException {
+        this.channel = new FileOutputStream(file).getChannel();
+        this.batch = ByteBuffer.allocateDirect(Math.max(batchBytes, 2) & ~1).order(ByteOrder.LITTLE_ENDIAN);
+        this.sampleRate = sampleRate;
+        // Место под заголовок; сам заголовок — в close(), когда известен размер данных
+        channel.position(WavHeader.SIZE);
+    }
+
+    public void write(short[] samples, int offset, int count) throws IOException {
+        while (count > 0) {
+            int n = Math.min(count, batch.remaining() / 2);
+            batch.asShortBuffer().put(samples, offset, n);
+            batch.position(batch.position() + n * 2);
+            offset += n;
+            count -= n;
+            if (!batch.hasRemaining()) {
+                flush();
+            }
+        }
+    }
+
+    /** Записано байт PCM (включая ещё не сброшенные в файл). */
+    public long getDataBytes() {
+        return dataBytes + batch.position();
+    }
+
+    /** Дописать остаток пакета и заголовок, закрыть файл. Повторный вызов ничего не делает. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(WavHeader.SIZE);
+            WavHeader.put(header, sampleRate, 1, 16, (int) dataBytes);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            dataBytes += channel.write(batch);
+        }
+        batch.clear();
+    }
+}
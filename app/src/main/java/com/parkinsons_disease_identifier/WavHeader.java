@@ -0,0 +1,72 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Канонический 44-байтовый заголовок WAV (PCM). Без зависимостей от Android,
+ * чтобы запись заголовка можно было проверять и измерять на обычной JVM.
+ */
+public final class WavHeader {
+
+    public static final int SIZE = 44;
+
+    private static final byte[] RIFF = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WAVE = "WAVE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FMT = "fmt ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DATA = "data".getBytes(StandardCharsets.US_ASCII);
+
+    private WavHeader() {
+    }
+
+    /**
+     * Записать заголовок в {@code dst} с текущей позиции (порядок байт буфера меняется на little-endian).
+     *
+     * @param pcmDataSize размер блока PCM-данных в байтах
+     */
+    public static void put(ByteBuffer dst, int sampleRate, int channels, int bitsPerSample, int pcmDataSize) {
+        int blockAlign = channels * bitsPerSample / 8;
+        dst.order(ByteOrder.LITTLE_ENDIAN);
+        dst.put(RIFF);
+        dst.putInt(SIZE - 8 + pcmDataSize);
+        dst.put(WAVE);
+        dst.put(FMT);
+        dst.putInt(16);
+        dst.putShort((short) 1); // PCM
+        dst.putShort((short) channels);
+        dst.putInt(sampleRate);
+        dst.putInt(sampleRate * blockAlign); // byte rate
+        dst.putShort((short) blockAlign);
+        dst.putShort((short) bitsPerSample);
+        dst.put(DATA);
+        dst.putInt(pcmDataSize);
+    }
+
+    /** Перезаписать заголовок в начале файла. */
+    public static void write(RandomAccessFile raf, int sampleRate, int channels, int bitsPerSample,
+                             int pcmDataSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SIZE);
+        put(header, sampleRate, channels, bitsPerSample, pcmDataSize);
+        raf.seek(0);
+        raf.write(header.array());
+    }
+
+    /**
+     * Записать WAV-файл (16-bit PCM, моно) из отсчётов в памяти одним блоком.
+     *
+     * @param count число отсчётов из {@code samples}
+     */
+    public static void writeMono16(File file, short[] samples, int count, int sampleRate) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE + count * 2);
+        put(buffer, sampleRate, 1, 16, count * 2);
+        buffer.asShortBuffer().put(samples, 0, count);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buffer.array());
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Потоковое чтение WAV (RIFF): PCM 8/16/24/32 бит, float 32/64 бит, WAVE_FORMAT_EXTENSIBLE, любое число каналов;
+ * служебные чанки (LIST, fact, bext и т. п.) пропускаются в любом порядке. Кадры читаются порциями и сводятся
+ * в моно float ({@link #readMono}) — память не зависит от длины файла. Без зависимостей от Android.
+ */
+public final class WavReader implements Closeable {
+
+    /** Отсчёты и частота дискретизации прочитанного файла. */
+    public static final class Pcm {
+        public final short[] samples;
+        public final int sampleRate;
+
+        Pcm(short[] samples, int sampleRate) {
+            this.samples = samples;
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    private static final int RIFF = 0x46464952;
+    private static final int WAVE = 0x45564157;
+    private static final int FMT = 0x20746d66;
+    private static final int DATA = 0x61746164;
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /** Кадров за одно чтение из потока. */
+    private static final int BUFFER_FRAMES = 4096;
+    /** Больше каналов в звукозаписи не бывает; вместе с проверкой blockAlign ограничивает буфер чтения (≤ 1 МБ). */
+    private static final int MAX_CHANNELS = 32;
+
+    private final InputStream in;
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+    private final int blockAlign;
+    private final boolean floatSamples;
+    /** Непрочитанные байты блока data; -1 — размер не записан, читать до конца потока. */
+    private long dataRemaining;
+
+    private final byte[] bytes;
+    private final ByteBuffer view;
+
+    private WavReader(InputStream in, int sampleRate, int channels, int bitsPerSample, int blockAlign,
+                      boolean floatSamples, long dataSize) {
+        this.in = in;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.blockAlign = blockAlign;
+        this.floatSamples = floatSamples;
+        this.dataRemaining = dataSize;
+        this.bytes = new byte[BUFFER_FRAMES * blockAlign];
+        this.view = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Разобрать заголовок до начала блока data. Поток закрывается {@link #close()}
+     * (при ошибке разбора — вызывающей стороной).
+     *
+     * @throws IOException не WAV, формат не поддерживается или ошибка чтения
+     */
+    public static WavReader open(InputStream input) throws IOException {
+        InputStream in = input instanceof BufferedInputStream ? input : new BufferedInputStream(input);
+        byte[] header = new byte[12];
+        readFully(in, header, header.length);
+        ByteBuffer riff = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        if (riff.getInt(0) != RIFF || riff.getInt(8) != WAVE) {
+            throw new IOException("Not a RIFF/WAVE stream");
+        }
+        ByteBuffer fmt = null;
+        while (true) {
+            readFully(in, header, 8);
+            int tag = riff.getInt(0);
+            long size = riff.getInt(4) & 0xFFFFFFFFL;
+            if (tag == FMT) {
+                if (size < 16 || size > 1024) {
+                    throw new IOException("Bad fmt chunk size " + size);
+                }
+                byte[] body = new byte[(int) size];
+                readFully(in, body, body.length);
+                skipFully(in, size & 1);
+                fmt = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+            } else if (tag == DATA) {
+                if (fmt == null) {
+                    throw new IOException("data chunk before fmt");
+                }
+                // 0 и 0xFFFFFFFF оставляют программы, не дописавшие размер (потоковая или прерванная запись)
+                return fromFormat(in, fmt, size == 0 || size == 0xFFFFFFFFL ? -1 : size);
+            } else {
+                skipFully(in, size + (size & 1));
+            }
+        }
+    }
+
+    private static WavReader fromFormat(InputStream in, ByteBuffer fmt, long dataSize) throws IOException {
+        int format = fmt.getShort(0) & 0xFFFF;
+        int channels = fmt.getShort(2) & 0xFFFF;
+        int sampleRate = fmt.getInt(4);
+        int blockAlign = fmt.getShort(12) & 0xFFFF;
+        int bits = fmt.getShort(14) & 0xFFFF;
+        if (format == FORMAT_EXTENSIBLE) {
+            if (fmt.capacity() < 40) {
+                throw new IOException("Truncated WAVE_FORMAT_EXTENSIBLE");
+            }
+            // Первые два байта GUID подформата совпадают с обычным кодом формата
+            format = fmt.getShort(24) & 0xFFFF;
+        }
+        boolean isFloat = format == FORMAT_FLOAT;
+        if (format != FORMAT_PCM && !isFloat) {
+            throw new IOException("Unsupported WAV format " + format);
+        }
+        boolean supported = isFloat ? bits == 32 || bits == 64 : bits == 8 || bits == 16 || bits == 24 || bits == 32;
+        // blockAlign из заголовка задаёт размер буфера: принимается только значение, согласованное с форматом
+        if (!supported || channels < 1 || channels > MAX_CHANNELS || sampleRate <= 0
+                || blockAlign != channels * bits / 8) {
+            throw new IOException("Unsupported WAV layout: " + channels + " ch, " + bits + " bit, " + sampleRate + " Hz");
+        }
+        return new WavReader(in, sampleRate, channels, bits, blockAlign, isFloat, dataSize);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    public boolean isFloat() {
+        return floatSamples;
+    }
+
+    /**
+     * Прочитать до {@code maxFrames} кадров, сведённых в моно (среднее каналов), в диапазоне [-1, 1].
+     *
+     * @return число кадров или -1 в конце данных
+     */
+    public int readMono(float[] dst, int offset, int maxFrames) throws IOException {
+        int frames = Math.min(maxFrames, BUFFER_FRAMES);
+        if (dataRemaining >= 0) {
+            frames = (int) Math.min(frames, dataRemaining / blockAlign);
+        }
+        if (frames <= 0) {
+            return -1;
+        }
+        int wanted = frames * blockAlign;
+        int got = 0;
+        while (got < wanted) {
+            int n = in.read(bytes, got, wanted - got);
+            if (n < 0) {
+                break;
+            }
+            got += n;
+        }
+        frames = got / blockAlign; // неполный последний кадр (обрезанный файл) отбрасывается
+        if (frames == 0) {
+            dataRemaining = 0;
+            return -1;
+        }
+        if (dataRemaining >= 0) {
+            dataRemaining -= (long) frames * blockAlign;
+        }
+        int bytesPerSample = bitsPerSample / 8;
+        float scale = 1f / channels;
+        for (int f = 0; f < frames; f++) {
+            int base = f * blockAlign;
+            float sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += sample(base + c * bytesPerSample);
+            }
+            dst[offset + f] = sum * scale;
+        }
+        return frames;
+    }
+
+    /**
+     * Прочитать байты блока data как есть, без разбора отсчётов (например, для хэширования содержимого).
+     *
+     * @return число байтов или -1 в конце данных
+     */
+    public int readData(byte[] dst, int offset, int length) throws IOException {
+        if (dataRemaining == 0) {
+            return -1;
+        }
+        int n = in.read(dst, offset, dataRemaining > 0 ? (int) Math.min(length, dataRemaining) : length);
+        if (n < 0) {
+            dataRemaining = 0;
+            return -1;
+        }
+        if (dataRemaining > 0) {
+            dataRemaining -= n;
+        }
+        return n;
+    }
+
+    private float sample(int position) {
+        if (floatSamples) {
+            return bitsPerSample == 32 ? view.getFloat(position) : (float) view.getDouble(position);
+        }
+        switch (bitsPerSample) {
+            case 8:
+                return ((bytes[position] & 0xFF) - 128) / 128f; // 8-битный PCM беззнаковый
+            case 16:
+                return view.getShort(position) / 32768f;
+            case 24:
+                int value = (bytes[position] & 0xFF) | (bytes[position + 1] & 0xFF) << 8 | bytes[position + 2] << 16;
+                return value / 8388608f;
+            default:
+                return view.getInt(position) / 2147483648f;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Прочитать файл целиком в память как 16-bit PCM моно (каналы сводятся, частота не меняется).
+     *
+     * @return отсчёты или null, если формат не поддерживается или файл не прочитать
+     */
+    public static Pcm readMono16(File file) {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            WavReader reader = open(stream);
+            float[] chunk = new float[BUFFER_FRAMES];
+            short[] samples = new short[BUFFER_FRAMES];
+            int count = 0;
+            int n;
+            while ((n = reader.readMono(chunk, 0, chunk.length)) > 0) {
+                if (samples.length - count < n) {
+                    samples = Arrays.copyOf(samples, samples.length * 2);
+                }
+                toPcm16(chunk, 0, samples, count, n);
+                count += n;
+            }
+            return new Pcm(Arrays.copyOf(samples, count), reader.getSampleRate());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /** Перевести отсчёты [-1, 1] в 16-bit PCM с округлением и насыщением. */
+    public static void toPcm16(float[] src, int srcOffset, short[] dst, int dstOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            int value = Math.round(src[srcOffset + i] * 32768f);
+            dst[dstOffset + i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int count) throws IOException {
+        int got = 0;
+        while (got < count) {
+            int n = in.read(buffer, got, count - got);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            got += n;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                // skip() вправе вернуть 0 и до конца потока — проверяем чтением
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+}
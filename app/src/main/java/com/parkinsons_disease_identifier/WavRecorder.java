@@ -7,95 +7,314 @@ import android.util.Log;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Запись с микрофона в WAV (16-bit PCM, моно).
- * Используется AudioRecord; файл подходит для Parselmouth и анализа.
+ * Запись с микрофона (16-bit PCM, моно, 16 кГц) в память.
+ * Поток захвата только читает AudioRecord в кольцевой буфер ({@link PcmRingBuffer}); всё остальное —
+ * накопление отсчётов, потоковый анализ, запись WAV пакетами ({@link WavFileWriter}) — делает поток записи.
+ * Медленная флеш-память или анализатор не задерживают захват: при заполнении кольца отсчёты отбрасываются
+ * и учитываются в {@link #getOverrunCount()} / {@link #getDroppedFrames()}.
+ * Уровень записи (RMS, пик, клиппинг, SNR) считается прямо в потоке захвата без выделения памяти —
+ * см. {@link #getLevelMeter()}.
+ * Если задан получатель ({@link CaptureListener}), захват идёт во float (ENCODING_PCM_FLOAT), и получатель
+ * читает отсчёты прямо из кольца, без копий и преобразований; в 16 бит для памяти и WAV их один раз переводит
+ * поток записи. Без получателя (или если устройство не поддерживает float) захват 16-битный.
+ * Отсчёты передаются в анализ напрямую ({@link #getSamples()}), без файла.
  */
 public class WavRecorder {
 
+    /** Получатель отсчётов по мере захвата (вызывается в потоке записи, не в потоке захвата). */
+    public interface CaptureListener {
+        /**
+         * @param samples отсчёты в диапазоне [-1, 1] от position до limit; буфер переиспользуется —
+         *                после возврата из метода он недействителен
+         */
+        void onSamples(FloatBuffer samples);
+    }
+
     private static final String TAG = "WavRecorder";
 
     public static final int SAMPLE_RATE_HZ = 16000;
     private static final int CHANNEL_CONFIG = AudioFormat.CHANNEL_IN_MONO;
-    private static final int AUDIO_ENCODING = AudioFormat.ENCODING_PCM_16BIT;
-    public static final int WAV_HEADER_SIZE = 44;
+    public static final int WAV_HEADER_SIZE = WavHeader.SIZE;
+
+    /** Начальная ёмкость буфера — 10 с записи; дальше буфер растёт вдвое. */
+    private static final int INITIAL_CAPACITY_SAMPLES = SAMPLE_RATE_HZ * 10;
+    /** Около 2 с звука: запас на паузу потока записи (сборка мусора, медленная запись на флеш). */
+    private static final int RING_CAPACITY_SAMPLES = 32768;
+    /** Поток записи просыпается по сигналу захвата; таймаут — страховка от пропущенного сигнала. */
+    private static final long WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long STOP_TIMEOUT_MS = 1500;
 
-    private final int bufferSizeBytes;
     private AudioRecord audioRecord;
-    private RandomAccessFile wavFile;
     private File file;
     private Thread recordThread;
+    private Thread writerThread;
     private volatile boolean isRecording;
+    private volatile boolean captureDone;
+    private CaptureListener captureListener;
+    private CountDownLatch drained = new CountDownLatch(0);
+    private final LevelMeter levelMeter = new LevelMeter(SAMPLE_RATE_HZ);
+
+    /** Пишет только поток захвата. */
+    private volatile int overrunCount;
+    private volatile long droppedFrames;
 
-    public WavRecorder() {
-        int minBuf = AudioRecord.getMinBufferSize(SAMPLE_RATE_HZ, CHANNEL_CONFIG, AUDIO_ENCODING);
-        this.bufferSizeBytes = Math.max(minBuf, 4096);
+    /** Записанные отсчёты; пишет только поток записи, читают после {@link #stop()}. */
+    private short[] samples = new short[0];
+    private int sampleCount;
+    private CompletableFuture<File> archive = CompletableFuture.completedFuture(null);
+
+    /** Задать получателя отсчётов для следующей записи (null — без потоковой обработки). */
+    public void setCaptureListener(CaptureListener listener) {
+        captureListener = listener;
     }
 
     /**
-     * Начать запись в указанный файл. Файл будет перезаписан.
+     * Начать запись. Отсчёты по ходу записи сохраняются в указанный файл (он будет перезаписан);
+     * null — только в память.
      */
     public void start(File outputFile) throws IOException {
         if (audioRecord != null) {
             stop();
         }
+        // Предыдущий поток записи может ещё дописывать заголовок в тот же файл
+        joinQuietly(writerThread);
         file = outputFile;
+        CaptureListener listener = captureListener;
 
-        audioRecord = new AudioRecord(
-                MediaRecorder.AudioSource.MIC,
-                SAMPLE_RATE_HZ,
-                CHANNEL_CONFIG,
-                AUDIO_ENCODING,
-                bufferSizeBytes
-        );
-        if (audioRecord.getState() != AudioRecord.STATE_INITIALIZED) {
-            audioRecord.release();
-            audioRecord = null;
+        boolean floatCapture = false;
+        if (listener != null) {
+            audioRecord = createAudioRecord(AudioFormat.ENCODING_PCM_FLOAT);
+            floatCapture = audioRecord != null;
+            if (!floatCapture) {
+                Log.w(TAG, "Float capture unavailable, falling back to 16-bit");
+            }
+        }
+        if (audioRecord == null) {
+            audioRecord = createAudioRecord(AudioFormat.ENCODING_PCM_16BIT);
+        }
+        if (audioRecord == null) {
             throw new IOException("AudioRecord init failed");
         }
+        int chunk = chunkSamples(floatCapture ? AudioFormat.ENCODING_PCM_FLOAT : AudioFormat.ENCODING_PCM_16BIT);
 
-        wavFile = new RandomAccessFile(file, "rw");
-        wavFile.setLength(0);
-        wavFile.write(new byte[WAV_HEADER_SIZE]);
+        // Новый массив: прежние отсчёты могут ещё читаться анализом
+        samples = new short[INITIAL_CAPACITY_SAMPLES];
+        sampleCount = 0;
+        overrunCount = 0;
+        droppedFrames = 0;
+        levelMeter.reset();
+        captureDone = false;
+        // Новое кольцо на каждую запись: остаток прерванной по таймауту записи не попадёт в следующую
+        PcmRingBuffer buffer = new PcmRingBuffer(RING_CAPACITY_SAMPLES, floatCapture);
+        CountDownLatch drainedLatch = new CountDownLatch(1);
+        drained = drainedLatch;
+        CompletableFuture<File> target = new CompletableFuture<>();
+        archive = target;
 
         audioRecord.startRecording();
         isRecording = true;
-        recordThread = new Thread(this::recordLoop);
+        writerThread = new Thread(() -> writeLoop(buffer, outputFile, listener, target, drainedLatch), "wav-writer");
+        writerThread.start();
+        Thread writer = writerThread;
+        recordThread = new Thread(() -> recordLoop(buffer, chunk, writer), "wav-capture");
+        recordThread.setPriority(Thread.MAX_PRIORITY);
         recordThread.start();
-        Log.d(TAG, "WAV recording started: " + file.getAbsolutePath());
+        Log.d(TAG, "Recording started" + (floatCapture ? " (float)" : "")
+                + (file != null ? ": " + file.getAbsolutePath() : ""));
+    }
+
+    /** AudioRecord с заданной кодировкой или null, если устройство её не поддерживает. */
+    private static AudioRecord createAudioRecord(int encoding) {
+        AudioRecord record;
+        try {
+            record = new AudioRecord(
+                    MediaRecorder.AudioSource.MIC,
+                    SAMPLE_RATE_HZ,
+                    CHANNEL_CONFIG,
+                    encoding,
+                    chunkSamples(encoding) * bytesPerSample(encoding)
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (record.getState() != AudioRecord.STATE_INITIALIZED) {
+            record.release();
+            return null;
+        }
+        return record;
+    }
+
+    /** Размер одного чтения в отсчётах: не меньше минимального буфера AudioRecord и 2048 отсчётов (128 мс). */
+    private static int chunkSamples(int encoding) {
+        int minBuf = AudioRecord.getMinBufferSize(SAMPLE_RATE_HZ, CHANNEL_CONFIG, encoding);
+        return Math.max(minBuf / bytesPerSample(encoding), 2048);
     }
 
-    private void recordLoop() {
-        byte[] buffer = new byte[bufferSizeBytes];
+    private static int bytesPerSample(int encoding) {
+        return encoding == AudioFormat.ENCODING_PCM_FLOAT ? 4 : 2;
+    }
+
+    private void recordLoop(PcmRingBuffer ring, int chunk, Thread writer) {
+        // Сюда читаются отсчёты, которым не хватило места в кольце
+        short[] overflowShorts = ring.isFloat() ? null : new short[chunk];
+        float[] overflowFloats = ring.isFloat() ? new float[chunk] : null;
         try {
             while (isRecording && audioRecord != null && audioRecord.getRecordingState() == AudioRecord.RECORDSTATE_RECORDING) {
-                int read = audioRecord.read(buffer, 0, buffer.length);
-                if (read > 0 && wavFile != null) {
-                    wavFile.write(buffer, 0, read);
-                } else if (read == AudioRecord.ERROR_INVALID_OPERATION || read == AudioRecord.ERROR_BAD_VALUE) {
+                int space = ring.writableContiguous();
+                int read;
+                if (space == 0) {
+                    // Поток записи не успевает: читаем дальше, чтобы не переполнить буфер AudioRecord
+                    read = ring.isFloat()
+                            ? audioRecord.read(overflowFloats, 0, chunk, AudioRecord.READ_BLOCKING)
+                            : audioRecord.read(overflowShorts, 0, chunk);
+                    if (read > 0) {
+                        if (ring.isFloat()) {
+                            levelMeter.add(overflowFloats, 0, read);
+                        } else {
+                            levelMeter.add(overflowShorts, 0, read);
+                        }
+                        overrunCount++;
+                        droppedFrames += read;
+                    }
+                } else {
+                    int n = Math.min(space, chunk);
+                    int offset = ring.writeOffset();
+                    read = ring.isFloat()
+                            ? audioRecord.read(ring.floatArray(), offset, n, AudioRecord.READ_BLOCKING)
+                            : audioRecord.read(ring.shortArray(), offset, n);
+                    if (read > 0) {
+                        if (ring.isFloat()) {
+                            levelMeter.add(ring.floatArray(), offset, read);
+                        } else {
+                            levelMeter.add(ring.shortArray(), offset, read);
+                        }
+                        ring.commit(read);
+                        LockSupport.unpark(writer);
+                    }
+                }
+                if (read == AudioRecord.ERROR_INVALID_OPERATION || read == AudioRecord.ERROR_BAD_VALUE) {
                     break;
                 }
             }
+        } finally {
+            captureDone = true;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop(PcmRingBuffer ring, File target, CaptureListener listener, CompletableFuture<File> result,
+                           CountDownLatch drainedLatch) {
+        WavFileWriter wav = openWav(target);
+        // Представление для получателя: над кольцом (float) или над буфером преобразования (16 бит)
+        float[] converted = listener != null && !ring.isFloat() ? new float[ring.capacity()] : null;
+        FloatBuffer view = listener == null ? null
+                : FloatBuffer.wrap(ring.isFloat() ? ring.floatArray() : converted);
+        boolean completed = false;
+        try {
+            while (true) {
+                // Флаг читается до проверки кольца: всё, что опубликовано до флага, будет прочитано
+                boolean done = captureDone;
+                int count = ring.readableContiguous();
+                if (count == 0) {
+                    if (done) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+                    continue;
+                }
+                int offset = ring.readOffset();
+                if (samples.length - sampleCount < count) {
+                    samples = Arrays.copyOf(samples, Math.max(samples.length * 2, sampleCount + count));
+                }
+                if (ring.isFloat()) {
+                    if (listener != null) {
+                        view.limit(offset + count).position(offset);
+                        listener.onSamples(view);
+                    }
+                    WavReader.toPcm16(ring.floatArray(), offset, samples, sampleCount, count);
+                } else {
+                    System.arraycopy(ring.shortArray(), offset, samples, sampleCount, count);
+                    if (listener != null) {
+                        for (int i = 0; i < count; i++) {
+                            converted[i] = samples[sampleCount + i] / 32768f;
+                        }
+                        view.limit(count).position(0);
+                        listener.onSamples(view);
+                    }
+                }
+                ring.release(count);
+                if (wav != null) {
+                    try {
+                        wav.write(samples, sampleCount, count);
+                    } catch (IOException e) {
+                        Log.e(TAG, "Error writing WAV file", e);
+                        closeQuietly(wav);
+                        wav = null;
+                    }
+                }
+                sampleCount += count;
+            }
+            completed = true;
+        } finally {
+            drainedLatch.countDown();
+            if (completed) {
+                result.complete(finishWav(wav, target));
+            } else {
+                // Исключение получателя или записи: архив неполон, но ожидающие его (анализ) не должны зависнуть
+                if (wav != null) {
+                    closeQuietly(wav);
+                }
+                result.complete(null);
+            }
+        }
+    }
+
+    private static WavFileWriter openWav(File target) {
+        if (target == null) {
+            return null;
+        }
+        try {
+            return new WavFileWriter(target, SAMPLE_RATE_HZ, WavFileWriter.DEFAULT_BATCH_BYTES);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot open WAV file", e);
+            return null;
+        }
+    }
+
+    private File finishWav(WavFileWriter wav, File target) {
+        if (wav == null) {
+            return null;
+        }
+        try {
+            wav.close();
         } catch (IOException e) {
-            Log.e(TAG, "Write error", e);
+            Log.e(TAG, "Error writing WAV file", e);
+            return null;
+        }
+        if (sampleCount == 0) {
+            target.delete();
+            return null;
         }
+        Log.d(TAG, "WAV saved: " + target.getAbsolutePath() + " length=" + target.length());
+        return target;
     }
 
     /**
-     * Остановить запись и дописать WAV-заголовок.
+     * Остановить запись. Возвращается, когда все захваченные отсчёты переданы в память и получателю;
+     * завершение WAV-файла — см. {@link #getArchive()}.
      */
     public void stop() {
         isRecording = false;
         if (recordThread != null) {
-            try {
-                recordThread.join(1500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            joinQuietly(recordThread);
             recordThread = null;
         }
         if (audioRecord != null) {
@@ -108,47 +327,65 @@ public class WavRecorder {
                 Log.e(TAG, "Error releasing AudioRecord", e);
             }
             audioRecord = null;
-        }
-        if (wavFile != null) {
+            captureDone = true;
+            LockSupport.unpark(writerThread);
             try {
-                long pcmBytes = wavFile.length() - WAV_HEADER_SIZE;
-                if (pcmBytes > 0) {
-                    writeWavHeader(wavFile, (int) pcmBytes);
+                if (!drained.await(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    Log.w(TAG, "Writer thread did not drain in time");
                 }
-                wavFile.close();
-            } catch (IOException e) {
-                Log.e(TAG, "Error closing WAV file", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            wavFile = null;
+            Log.d(TAG, "Recording stopped: " + sampleCount + " samples, overruns=" + overrunCount
+                    + ", dropped=" + droppedFrames);
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        if (thread == null) {
+            return;
         }
-        if (file != null) {
-            Log.d(TAG, "WAV recording stopped: " + file.getAbsolutePath() + " length=" + file.length());
+        try {
+            thread.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(WavFileWriter wav) {
+        try {
+            wav.close();
+        } catch (IOException ignored) {
         }
     }
 
-    private static void writeWavHeader(RandomAccessFile raf, int pcmDataSize) throws IOException {
-        int totalSize = WAV_HEADER_SIZE + pcmDataSize;
-        int byteRate = SAMPLE_RATE_HZ * 2; // 16-bit = 2 bytes per sample, mono
+    /** Отсчёты последней записи (копия ровно по длине); пустой массив, если записи не было. */
+    public short[] getSamples() {
+        return Arrays.copyOf(samples, sampleCount);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /** Сколько раз поток записи не успел освободить кольцевой буфер (за последнюю запись). */
+    public int getOverrunCount() {
+        return overrunCount;
+    }
 
-        raf.seek(0);
-        ByteBuffer header = ByteBuffer.allocate(WAV_HEADER_SIZE);
-        header.order(ByteOrder.LITTLE_ENDIAN);
+    /** Сколько отсчётов (кадров моно) отброшено из-за переполнения кольца (за последнюю запись). */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
 
-        header.put("RIFF".getBytes());
-        header.putInt(totalSize - 8);
-        header.put("WAVE".getBytes());
-        header.put("fmt ".getBytes());
-        header.putInt(16);
-        header.putShort((short) 1); // PCM
-        header.putShort((short) 1); // mono
-        header.putInt(SAMPLE_RATE_HZ);
-        header.putInt(byteRate);
-        header.putShort((short) 2); // block align
-        header.putShort((short) 16); // bits per sample
-        header.put("data".getBytes());
-        header.putInt(pcmDataSize);
+    /** Статистика уровня текущей (или последней) записи; обновляется по мере захвата. */
+    public LevelMeter getLevelMeter() {
+        return levelMeter;
+    }
 
-        raf.write(header.array());
+    /** WAV-файл последней записи: файл или null (файл не задан, запись пуста или ошибка). */
+    public CompletableFuture<File> getArchive() {
+        return archive;
     }
 
     public File getFile() {
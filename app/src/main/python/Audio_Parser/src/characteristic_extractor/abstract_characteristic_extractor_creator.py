@@ -6,11 +6,11 @@ class AbstractCharacteristicExtractorCreator(ABC):
     """Абстрактная Фабрика для создания извлекателей характеристик.
     """    
     @abstractmethod
-    def create_characteristic_extractor(self, file_path: str) -> ICharacteristicExtractor:
+    def create_characteristic_extractor(self, source) -> ICharacteristicExtractor:
         """Создать извлекателя характеристик аудиофайла.
 
         Args:
-            file_path (str): Путь к аудиофайлу.
+            source: Путь к аудиофайлу или уже загруженный звук (тип зависит от реализации).
 
         Returns:
             ICharacteristicExtractor: Интерфейс для извлекателя характеристик.
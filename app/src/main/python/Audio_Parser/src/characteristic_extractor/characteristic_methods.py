@@ -0,0 +1,61 @@
+from collections.abc import Callable
+
+from characteristic import Characteristic
+from characteristic_extractor.i_characteristic_extractor import ICharacteristicExtractor
+
+CHARACTERISTIC_METHOD_NAMES: dict[Characteristic, str] = {
+    Characteristic.F0_MEAN: "get_f0_mean",
+    Characteristic.F0_STDEV: "get_f0_stdev",
+    Characteristic.F0_MIN: "get_f0_min",
+    Characteristic.F0_MAX: "get_f0_max",
+    Characteristic.F0_RANGE: "get_f0_range",
+    Characteristic.JITTER_PPQ5: "get_jitter_ppq5",
+    Characteristic.JITTER_LOCAL: "get_jitter_local",
+    Characteristic.SHIMMER_LOCAL: "get_shimmer_local",
+    Characteristic.HNR: "get_hnr",
+    Characteristic.INTENSITY_MEAN: "get_intensity_mean",
+    Characteristic.INTENSITY_STDEV: "get_intensity_stdev",
+    Characteristic.INTENSITY_RANGE: "get_intensity_range",
+    Characteristic.F1: "get_f1",
+    Characteristic.F2: "get_f2",
+    Characteristic.F3: "get_f3",
+    Characteristic.F4: "get_f4",
+    Characteristic.DURATION: "get_total_duration",
+    Characteristic.JITTER_ABS: "get_jitter_abs",
+    Characteristic.JITTER_RAP: "get_jitter_rap",
+    Characteristic.SHIMMER_DB: "get_shimmer_db",
+    Characteristic.SHIMMER_APQ3: "get_shimmer_apq3",
+    Characteristic.SHIMMER_APQ5: "get_shimmer_apq5",
+    Characteristic.SHIMMER_APQ11: "get_shimmer_apq11",
+    Characteristic.PPE: "get_ppe",
+}
+"""Метод ICharacteristicExtractor, который вычисляет характеристику.
+NHR и NO_PAUSES не реализованы и в таблицу не входят.
+"""
+
+
+def parse_characteristics(names) -> list[Characteristic]:
+    """Преобразовать имена характеристик (например, массив строк из Java) в список Characteristic.
+
+    Raises:
+        ValueError: Имя не является характеристикой или для неё нет метода извлечения.
+    """
+    characteristics = []
+    for name in names:
+        try:
+            characteristic = Characteristic[str(name)]
+        except KeyError:
+            raise ValueError(f"Unknown characteristic: {name}")
+        if characteristic not in CHARACTERISTIC_METHOD_NAMES:
+            raise ValueError(f"Characteristic is not supported: {name}")
+        characteristics.append(characteristic)
+    return characteristics
+
+
+def create_methods_list(characteristic_extractor: ICharacteristicExtractor,
+                        characteristics: list[Characteristic]) -> list[Callable[[], dict[Characteristic: float]]]:
+    """Методы извлекателя только для указанных характеристик (без повторов, в порядке первого упоминания).
+    Нужные объекты Praat строятся лениво внутри извлекателя, поэтому лишние не вычисляются.
+    """
+    method_names = list(dict.fromkeys(CHARACTERISTIC_METHOD_NAMES[c] for c in characteristics))
+    return [getattr(characteristic_extractor, name) for name in method_names]
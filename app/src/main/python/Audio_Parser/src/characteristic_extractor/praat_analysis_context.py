@@ -0,0 +1,119 @@
+import parselmouth
+import numpy as np
+
+
+class PraatAnalysisContext:
+    """Общие объекты Praat для одного аудиофайла.
+    Каждый объект (pitch, point process, intensity, harmonicity, formant) строится не более одного раза
+    при первом обращении и далее разделяется всеми методами извлекателя, поэтому все характеристики
+    считаются по одному и тому же треку основного тона.
+    """
+    def __init__(self, sound: parselmouth.Sound):
+        self.__sound = sound
+        self.__pitch = None
+        self.__voiced_f0 = None
+        self.__f0_min = None
+        self.__f0_max = None
+        self.__point_process = None
+        self.__intensity = None
+        self.__harmonicity = None
+        self.__formant = None
+        self.__pulse_times = None
+
+    @property
+    def sound(self) -> parselmouth.Sound:
+        return self.__sound
+
+    @property
+    def pitch(self) -> parselmouth.Pitch:
+        """Pitch с параметрами Praat по умолчанию."""
+        if self.__pitch is None:
+            self.__pitch = self.__sound.to_pitch()
+        return self.__pitch
+
+    @property
+    def voiced_f0(self) -> np.ndarray:
+        """Значения F0 (Гц) только в вокализованных кадрах (без 0 и NaN). Массив только для чтения."""
+        if self.__voiced_f0 is None:
+            f0_values = self.pitch.selected_array['frequency']
+            mask = ~np.isnan(f0_values) & (f0_values != 0)
+            self.__voiced_f0 = f0_values[mask]
+            self.__voiced_f0.setflags(write=False)
+        return self.__voiced_f0
+
+    @property
+    def f0_min(self) -> float:
+        if self.__f0_min is None:
+            self.__f0_min = np.min(self.voiced_f0)
+        return self.__f0_min
+
+    @property
+    def f0_max(self) -> float:
+        if self.__f0_max is None:
+            self.__f0_max = np.max(self.voiced_f0)
+        return self.__f0_max
+
+    @property
+    def point_process(self):
+        """Глоттальные импульсы "To PointProcess (periodic, cc)" в диапазоне [f0_min, f0_max]."""
+        if self.__point_process is None:
+            self.__point_process = parselmouth.praat.call(self.__sound, "To PointProcess (periodic, cc)",
+                                                          self.f0_min, self.f0_max)
+        return self.__point_process
+
+    @property
+    def intensity(self) -> parselmouth.Intensity:
+        if self.__intensity is None:
+            self.__intensity = self.__sound.to_intensity()
+        return self.__intensity
+
+    @property
+    def harmonicity(self) -> parselmouth.Harmonicity:
+        """"To Harmonicity (cc)" с нижней границей f0_min."""
+        if self.__harmonicity is None:
+            self.__harmonicity = parselmouth.praat.call(self.__sound, "To Harmonicity (cc)", 0.01, self.f0_min, 0.1, 1.0)
+        return self.__harmonicity
+
+    @property
+    def formant(self) -> parselmouth.Formant:
+        """"To Formant (burg)": 5 формант до 5000 Гц."""
+        if self.__formant is None:
+            self.__formant = parselmouth.praat.call(self.__sound, "To Formant (burg)", 0.0025, 5, 5000, 0.025, 50)
+        return self.__formant
+
+    @property
+    def pulse_times(self) -> np.ndarray:
+        """Моменты глоттальных импульсов (с) одним массивом вместо "Get time from index" на каждый импульс."""
+        if self.__pulse_times is None:
+            matrix = parselmouth.praat.call(self.point_process, "To Matrix")
+            self.__pulse_times = matrix.values[0].copy()
+            self.__pulse_times.setflags(write=False)
+        return self.__pulse_times
+
+    def formants_at_pulses(self, count: int = 4) -> np.ndarray:
+        """Значения формант 1..count (Гц) во всех глоттальных импульсах, массив [count, число импульсов].
+        Повторяет "Get value at time ... Hertz Linear": линейная интерполяция между соседними кадрами,
+        если один из соседей не определён — значение ближайшего кадра; вне сетки кадров и там,
+        где форманта не найдена, — NaN.
+        """
+        formant = self.formant
+        times = self.pulse_times
+        frame_count = formant.nx
+        index = (times - formant.x1) / formant.dx
+        left = np.floor(index).astype(np.int64)
+        right = left + 1
+        nearest = np.rint(index).astype(np.int64)
+        phase = index - left
+        in_range = (nearest >= 0) & (nearest < frame_count)
+
+        result = np.full((count, times.size), np.nan)
+        for number in range(1, count + 1):
+            track = parselmouth.praat.call(formant, "To Matrix", number).values[0]
+            # Отсутствующая в кадре форманта записывается в матрицу как 0
+            track = np.where(track > 0, track, np.nan)
+            f_left = np.where((left >= 0) & (left < frame_count), track[np.clip(left, 0, frame_count - 1)], np.nan)
+            f_right = np.where((right >= 0) & (right < frame_count), track[np.clip(right, 0, frame_count - 1)], np.nan)
+            f_near = track[np.clip(nearest, 0, frame_count - 1)]
+            values = np.where(np.isnan(f_left) | np.isnan(f_right), f_near, f_left + phase * (f_right - f_left))
+            result[number - 1] = np.where(in_range, values, np.nan)
+        return result
@@ -1,3 +1,5 @@
+import parselmouth
+
 from characteristic_extractor.abstract_characteristic_extractor_creator import AbstractCharacteristicExtractorCreator
 from characteristic_extractor.i_characteristic_extractor import ICharacteristicExtractor
 from characteristic_extractor.praat_characteristic_extractor import PraatCharacteristicExtractor
@@ -5,14 +7,14 @@ from characteristic_extractor.praat_characteristic_extractor import PraatCharact
 class PraatCharacteristicExtractorCreator(AbstractCharacteristicExtractorCreator):
     """Фабрика для создания извлекателей характеристик при помощи parselmouth (Praat).
     """    
-    def create_characteristic_extractor(self, file_path: str) -> ICharacteristicExtractor:
+    def create_characteristic_extractor(self, source: str | parselmouth.Sound) -> ICharacteristicExtractor:
         """Создать извлекателя характеристик аудиофайла.
 
         Args:
-            file_path (str): Путь к аудиофайлу.
+            source (str | parselmouth.Sound): Путь к аудиофайлу или звук, уже находящийся в памяти.
 
         Returns:
             ICharacteristicExtractor: Интерфейс для извлекателя характеристик.
         """   
-        return PraatCharacteristicExtractor(file_path)
+        return PraatCharacteristicExtractor(source)
 
@@ -1,10 +1,35 @@
+import os
+import time
 from abc import ABC, abstractmethod
 from collections.abc import Callable
+from multiprocessing import Pool
 
 from characteristic import Characteristic
 from characteristic_extractor.abstract_characteristic_extractor_creator import AbstractCharacteristicExtractorCreator
+from characteristic_extractor.characteristic_methods import create_methods_list
 from characteristic_extractor.i_characteristic_extractor import ICharacteristicExtractor
 from characteristic_saver.i_characteristic_saver import ICharacteristicSaver
+from characteristic_saver.i_streaming_characteristic_saver import IStreamingCharacteristicSaver
+
+# Процессор, созданный в дочернем процессе пула (см. AbstractCharacteristicProcessor.process_batch).
+_worker_processor: 'AbstractCharacteristicProcessor | None' = None
+_worker_characteristics: 'list[Characteristic] | None' = None
+
+
+def _init_worker(processor_type: type, creator: AbstractCharacteristicExtractorCreator,
+                 characteristics: 'list[Characteristic] | None'):
+    global _worker_processor, _worker_characteristics
+    # Сохранитель в рабочих процессах не нужен: строки сохраняет родительский процесс
+    _worker_processor = processor_type(creator, None)
+    _worker_characteristics = characteristics
+
+
+def _extract_in_worker(file_path: str) -> tuple[str, 'dict[Characteristic: float] | None', str | None]:
+    try:
+        return file_path, _worker_processor.extract(file_path, _worker_characteristics), None
+    except Exception as e:
+        return file_path, None, str(e)
+
 
 class AbstractCharacteristicProcessor(ABC):
     """Абстрактный процессор характеристик аудиофайла.
@@ -15,19 +40,47 @@ class AbstractCharacteristicProcessor(ABC):
         self._characteristic_extractor_creator = characteristic_extractor_creator
         self._characteristic_saver = characteristic_saver
 
-    def process(self, file_paths_list: list[str], output_filename: str):
+    def process(self, file_paths_list: list[str], output_filename: str,
+                characteristics: list[Characteristic] | None = None):
         """Извлекает характеристики аудиофайлов (ICharacteristicExtractor),
-        сохраняет данные (ICharacteristicSaver).
+        сохраняет данные (ICharacteristicSaver). IStreamingCharacteristicSaver получает строки по мере
+        готовности и позволяет продолжить прерванную обработку.
 
         Args:
             file_paths_list (list[str]): Список путей к обрабатываемым файлам.
             output_filename (str): Имя сохраняемого файла.
+            characteristics (list[Characteristic] | None): Какие характеристики извлекать
+                (например, только входы модели). None — полный набор процессора.
         """        
         header_and_data: dict[str, list[str]] = {}
         header_and_data_node = {Characteristic.FILEPATH.name: []}
         header_and_data.update(header_and_data_node)
-        file_counter = 0
+        file_paths_list = self.__open_saver(file_paths_list, output_filename)
         print('Start processing.')
+        try:
+            self.__process_files(file_paths_list, header_and_data, characteristics)
+        finally:
+            self.__close_saver()
+
+        if self.__is_streaming():
+            print('Saved successful.')
+            return
+
+        run: bool = True
+        while run:
+            try:
+                self._characteristic_saver.save(header_and_data, output_filename)
+                print('Saved successful.')
+                run = False
+            except Exception as e:
+                print(f"Error: cant save characteristics file. [{e}]")
+                print('Enter "q" to close program, or other key to try save again.')
+                if input() == 'q':
+                    run = False
+
+    def __process_files(self, file_paths_list: list[str], header_and_data: dict[str, list[str]],
+                        characteristics: list[Characteristic] | None):
+        file_counter = 0
         for file_path in file_paths_list:
             try:
                 characteristic_extractor: ICharacteristicExtractor = \
@@ -36,41 +89,131 @@ class AbstractCharacteristicProcessor(ABC):
                 print(f"Error: cant create characteristic extractor to {file_path}. [{e}]")
                 continue
 
-            methods: list[Callable[[], dict[Characteristic: float]]] = \
-                self._create_characteristic_extractor_methods_list(characteristic_extractor)
-            
             try:
-                characteristics_dict: dict[Characteristic: float] = {}
-                for method in methods:
-                    characteristics_dict.update(method())
+                characteristics_dict = self.__extract(characteristic_extractor, characteristics)
             except Exception as e:
                 print(f"Error: cant get characteristic. [{e}]")
                 continue
 
-            header_and_data[Characteristic.FILEPATH.name].append(file_path)
-            for key, value in characteristics_dict.items():
-                if key.name not in header_and_data:
-                    header_and_data[key.name] = []
-
-                header_and_data[key.name].append(value)
+            self.__append_row(header_and_data, file_path, characteristics_dict)
 
             file_counter += 1
             print(f"Processed files: {file_counter}", end='\r')
 
         print('\n')
 
-        run: bool = True
-        while run:
-            try:
-                self._characteristic_saver.save(header_and_data, output_filename)
-                print('Saved successful.')
-                run = False
-            except Exception as e:
-                print(f"Error: cant save characteristics file. [{e}]")
-                print('Enter "q" to close program, or other key to try save again.')
-                if input() == 'q':
-                    run = False
+    def process_batch(self, file_paths_list: list[str], output_filename: str,
+                      characteristics: list[Characteristic] | None = None,
+                      workers: int | None = None) -> list[str]:
+        """Неинтерактивный пакетный режим process: файлы обрабатываются пулом процессов
+        (Praat однопоточный, а GIL не даёт распараллелить его потоками), порядок строк совпадает
+        с порядком file_paths_list. Ошибка в одном файле не останавливает обработку остальных.
+        Вызывать из-под `if __name__ == '__main__':` — на платформах со spawn модуль импортируется заново.
+        С IStreamingCharacteristicSaver строки пишутся по мере готовности, а уже сохранённые файлы пропускаются.
+
+        Args:
+            file_paths_list (list[str]): Список путей к обрабатываемым файлам.
+            output_filename (str): Имя сохраняемого файла.
+            characteristics (list[Characteristic] | None): Какие характеристики извлекать.
+                None — полный набор процессора.
+            workers (int | None): Число процессов. None — по числу ядер.
+
+        Returns:
+            list[str]: Файлы, которые не удалось обработать.
+
+        Raises:
+            Exception: Ошибка сохранения (повтор не запрашивается).
+        """
+        workers = workers or os.cpu_count() or 1
+        header_and_data: dict[str, list[str]] = {Characteristic.FILEPATH.name: []}
+        failed: list[str] = []
+        file_paths_list = self.__open_saver(file_paths_list, output_filename)
+        start = time.perf_counter()
+        print(f'Start processing: {len(file_paths_list)} files, {workers} workers.')
+        try:
+            with Pool(workers, initializer=_init_worker,
+                      initargs=(type(self), self._characteristic_extractor_creator, characteristics)) as pool:
+                # imap отдаёт результаты в порядке входа; chunksize=1 — файлы заметно различаются по длительности
+                for done, (file_path, characteristics_dict, error) in \
+                        enumerate(pool.imap(_extract_in_worker, file_paths_list), start=1):
+                    if characteristics_dict is None:
+                        print(f"Error: cant get characteristic of {file_path}. [{error}]")
+                        failed.append(file_path)
+                    else:
+                        self.__append_row(header_and_data, file_path, characteristics_dict)
+                    elapsed = time.perf_counter() - start
+                    print(f"Processed files: {done}/{len(file_paths_list)}, "
+                          f"{done / elapsed:.2f} files/s", end='\r')
+        finally:
+            self.__close_saver()
+
+        elapsed = time.perf_counter() - start
+        print(f"\nDone in {elapsed:.1f} s: {len(file_paths_list) - len(failed)} processed, {len(failed)} failed.")
+        if not self.__is_streaming():
+            self._characteristic_saver.save(header_and_data, output_filename)
+        print('Saved successful.')
+        return failed
+
+    def __is_streaming(self) -> bool:
+        return isinstance(self._characteristic_saver, IStreamingCharacteristicSaver)
+
+    def __open_saver(self, file_paths_list: list[str], output_filename: str) -> list[str]:
+        """Открыть потоковый сохранитель и вернуть ещё не обработанные файлы."""
+        if not self.__is_streaming():
+            return file_paths_list
+        processed = self._characteristic_saver.open(output_filename)
+        if processed:
+            print(f'Resuming: {len(processed)} files already saved.')
+        return [file_path for file_path in file_paths_list if file_path not in processed]
+
+    def __close_saver(self):
+        if self.__is_streaming():
+            self._characteristic_saver.close()
+
+    def __append_row(self, header_and_data: dict[str, list[str]], file_path: str,
+                     characteristics_dict: dict[Characteristic: float]):
+        if self.__is_streaming():
+            # Строка сразу уходит в файл — в памяти таблица не накапливается
+            row: dict[str, str | float] = {Characteristic.FILEPATH.name: file_path}
+            row.update({key.name: value for key, value in characteristics_dict.items()})
+            self._characteristic_saver.append(row)
+            return
+
+        header_and_data[Characteristic.FILEPATH.name].append(file_path)
+        for key, value in characteristics_dict.items():
+            if key.name not in header_and_data:
+                header_and_data[key.name] = []
+
+            header_and_data[key.name].append(value)
+
+
+    def extract(self, source, characteristics: list[Characteristic] | None = None) -> dict[Characteristic: float]:
+        """Извлечь характеристики одного источника без сохранения (ICharacteristicSaver не вызывается).
+
+        Args:
+            source: Путь к аудиофайлу или звук в памяти (см. AbstractCharacteristicExtractorCreator).
+            characteristics (list[Characteristic] | None): Какие характеристики извлекать.
+                None — полный набор процессора.
+
+        Raises:
+            Exception: Ошибка чтения звука или вычисления характеристики.
+        """
+        characteristic_extractor: ICharacteristicExtractor = \
+            self._characteristic_extractor_creator.create_characteristic_extractor(source)
+        return self.__extract(characteristic_extractor, characteristics)
+
+    def __extract(self, characteristic_extractor: ICharacteristicExtractor,
+                  characteristics: list[Characteristic] | None) -> dict[Characteristic: float]:
+        if characteristics is None:
+            methods: list[Callable[[], dict[Characteristic: float]]] = \
+                self._create_characteristic_extractor_methods_list(characteristic_extractor)
+        else:
+            methods = create_methods_list(characteristic_extractor, characteristics)
 
+        characteristics_dict: dict[Characteristic: float] = {}
+        for method in methods:
+            characteristics_dict.update(method())
+        return characteristics_dict
 
     @abstractmethod
     def _create_characteristic_extractor_methods_list(self, characteristic_extractor: ICharacteristicExtractor) ->list[Callable[[], dict[Characteristic: float]]]:
@@ -0,0 +1,92 @@
+import csv
+import os
+
+from characteristic import Characteristic
+from characteristic_saver.i_streaming_characteristic_saver import IStreamingCharacteristicSaver
+
+class CsvStreamingCharacteristicSaver(IStreamingCharacteristicSaver):
+    """Сохранитель характеристик в CSV, строка за строкой.
+    В памяти держится только текущая строка и множество обработанных FILEPATH:
+    сам CSV служит контрольной точкой, при повторном запуске уже сохранённые файлы пропускаются.
+    """
+
+    def __init__(self, delimiter: str = ','):
+        self.__delimiter = delimiter
+        self.__file = None
+        self.__writer: csv.DictWriter | None = None
+        self.__header: list[str] | None = None
+
+    def open(self, output_filename: str) -> set[str]:
+        self.close()
+        processed: set[str] = set()
+        self.__header = None
+        if os.path.exists(output_filename):
+            self.__drop_partial_line(output_filename)
+            with open(output_filename, newline='', encoding='utf-8') as file:
+                reader = csv.reader(file, delimiter=self.__delimiter)
+                self.__header = next(reader, None)
+                if self.__header:
+                    path_index = self.__header.index(Characteristic.FILEPATH.name)
+                    processed = {row[path_index] for row in reader if len(row) > path_index}
+
+        self.__file = open(output_filename, 'a', newline='', encoding='utf-8')
+        if self.__header:
+            self.__writer = csv.DictWriter(self.__file, self.__header, delimiter=self.__delimiter)
+        return processed
+
+    def append(self, row: dict[str, str | float]):
+        if self.__writer is None:
+            # Первая строка нового файла задаёт заголовок
+            self.__header = list(row.keys())
+            self.__writer = csv.DictWriter(self.__file, self.__header, delimiter=self.__delimiter)
+            self.__writer.writeheader()
+        elif set(row.keys()) != set(self.__header):
+            raise ValueError(f"Row columns do not match header of the file: {sorted(row.keys())}")
+
+        self.__writer.writerow(row)
+        # Строка попадает в файл сразу: падение процесса теряет не больше текущего файла
+        self.__file.flush()
+
+    def close(self):
+        if self.__file is not None:
+            self.__file.close()
+        self.__file = None
+        self.__writer = None
+
+    def save(self, header_and_data: dict[str, list[str]], output_filename: str):
+        """Дописать таблицу целиком (строки с уже сохранёнными FILEPATH пропускаются).
+
+        Args:
+            header_and_data (dict[str, list[str]]): Словарь из заголовков и списка данных для них.
+            output_filename (str): Полное имя сохраняемого файла.
+        """
+        processed = self.open(output_filename)
+        try:
+            paths = header_and_data.get(Characteristic.FILEPATH.name, [])
+            for i, file_path in enumerate(paths):
+                if file_path not in processed:
+                    self.append({k: v[i] for k, v in header_and_data.items()})
+        finally:
+            self.close()
+
+    @staticmethod
+    def __drop_partial_line(output_filename: str):
+        """Отрезать недописанную последнюю строку, оставшуюся после аварийного завершения."""
+        with open(output_filename, 'rb+') as file:
+            size = file.seek(0, os.SEEK_END)
+            if size == 0:
+                return
+            file.seek(size - 1)
+            if file.read(1) == b'\n':
+                return
+            position = size
+            while position > 0:
+                step = min(4096, position)
+                position -= step
+                file.seek(position)
+                chunk = file.read(step)
+                newline = chunk.rfind(b'\n')
+                if newline >= 0:
+                    file.truncate(position + newline + 1)
+                    return
+            file.truncate(0)
@@ -10,12 +10,17 @@ class FileCharacteristicSaver(ICharacteristicSaver):
 
     def save(self, header_and_data: dict[str, list[str]], output_filename: str):
         """Сохранить первую строку данных в память (output_filename не используется).
+        Если ни один файл не обработан, сохраняется пустая строка.
 
         Args:
             header_and_data (dict[str, list[str]]): Словарь из заголовков и списка данных для них.
             output_filename (str): Не используется.
         """
-        self.__data = {k: v[0] for k, v in header_and_data.items()}
+        self.__data = {k: v[0] for k, v in header_and_data.items() if v}
+
+    def clear(self):
+        """Забыть предыдущую строку (парсер переиспользуется для следующего файла)."""
+        self.__data = {}
 
     def get_data(self) -> dict[str, str | float]:
         """Вернуть последнюю сохранённую строку характеристик."""
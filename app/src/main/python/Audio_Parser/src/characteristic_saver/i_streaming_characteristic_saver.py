@@ -0,0 +1,31 @@
+from abc import abstractmethod
+
+from characteristic_saver.i_characteristic_saver import ICharacteristicSaver
+
+class IStreamingCharacteristicSaver(ICharacteristicSaver):
+    """Интерфейс для сохранителей, которые пишут строки по мере их получения
+    и позволяют продолжить прерванную обработку.
+    """
+    @abstractmethod
+    def open(self, output_filename: str) -> set[str]:
+        """Открыть файл для дописывания (создать, если его нет).
+
+        Args:
+            output_filename (str): Полное имя сохраняемого файла.
+
+        Returns:
+            set[str]: FILEPATH уже сохранённых строк — их обрабатывать повторно не нужно.
+        """
+        pass
+
+    @abstractmethod
+    def append(self, row: dict[str, str | float]):
+        """Дописать одну строку (заголовок -> значение) и сбросить её на диск.
+        """
+        pass
+
+    @abstractmethod
+    def close(self):
+        """Закрыть файл. Повторный вызов допустим.
+        """
+        pass
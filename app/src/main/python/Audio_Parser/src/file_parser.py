@@ -1,17 +1,19 @@
 from characteristic_extractor.abstract_characteristic_extractor_creator import AbstractCharacteristicExtractorCreator
 from characteristic_extractor.praat_characteristic_extractor_creator import PraatCharacteristicExtractorCreator
 from characteristic_saver.file_characteristic_saver import FileCharacteristicSaver
-from characteristic_saver.i_characteristic_saver import ICharacteristicSaver
 from characteristic_processor.speech_characteristic_processor import SpeechCharacteristicProcessor
 from characteristic_processor.voice_characteristic_processor import VoiceCharacteristicProcessor
+from characteristic import Characteristic
 
 
 class FileParser:
     """Парсер одного аудиофайла (голос или речь) с сохранением характеристик в память.
+    Объект можно переиспользовать для последовательных файлов (не из нескольких потоков одновременно):
+    перед каждым разбором предыдущая строка сбрасывается.
     """    
     def __init__(self):
         characteristic_extractor_creator: AbstractCharacteristicExtractorCreator = PraatCharacteristicExtractorCreator()
-        self.__characteristic_saver: ICharacteristicSaver = FileCharacteristicSaver()
+        self.__characteristic_saver = FileCharacteristicSaver()
         self.__voice_characteristic_processor = VoiceCharacteristicProcessor(characteristic_extractor_creator, self.__characteristic_saver)
         self.__speech_characteristic_processor = SpeechCharacteristicProcessor(characteristic_extractor_creator, self.__characteristic_saver)
 
@@ -19,11 +21,25 @@ class FileParser:
         """Вернуть последнюю сохранённую строку характеристик после parse_voice или parse_speech."""
         return self.__characteristic_saver.get_data()
 
-    def parse_voice(self, file_path: str):    
+    def parse_voice(self, file_path: str, characteristics: list[Characteristic] | None = None):
+        """characteristics: только эти характеристики (None — полный набор для голоса)."""
         output_filename = ""
-        self.__voice_characteristic_processor.process([file_path], output_filename)
+        self.__characteristic_saver.clear()
+        self.__voice_characteristic_processor.process([file_path], output_filename, characteristics)
 
 
-    def parse_speech(self, file_path: str):    
+    def parse_speech(self, file_path: str, characteristics: list[Characteristic] | None = None):
+        """characteristics: только эти характеристики (None — полный набор для речи)."""
         output_filename = ""
-        self.__speech_characteristic_processor.process([file_path], output_filename)
\ No newline at end of file
+        self.__characteristic_saver.clear()
+        self.__speech_characteristic_processor.process([file_path], output_filename, characteristics)
+
+    def extract_voice(self, source, characteristics: list[Characteristic] | None = None) -> dict[Characteristic, float]:
+        """Характеристики голоса для пути или parselmouth.Sound, сразу словарем (без сохранителя).
+        Ошибка извлечения пробрасывается вызывающему."""
+        return self.__voice_characteristic_processor.extract(source, characteristics)
+
+    def extract_speech(self, source, characteristics: list[Characteristic] | None = None) -> dict[Characteristic, float]:
+        """Характеристики речи для пути или parselmouth.Sound, сразу словарем (без сохранителя).
+        Ошибка извлечения пробрасывается вызывающему."""
+        return self.__speech_characteristic_processor.extract(source, characteristics)
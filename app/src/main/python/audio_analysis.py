@@ -7,24 +7,119 @@ _parser_src = os.path.join(os.path.dirname(os.path.abspath(__file__)), "Audio_Pa
 if _parser_src not in sys.path:
     sys.path.insert(0, _parser_src)
 
+import numpy as np
+import parselmouth
+
 from file_parser import FileParser
+from characteristic import Characteristic
+from characteristic_extractor.characteristic_methods import parse_characteristics
+
+# Зарегистрированные схемы векторов признаков: имя схемы → (режим "voice"/"speech", порядок характеристик)
+_schemas: dict[str, tuple[str, list[Characteristic]]] = {}
+
+# Один парсер на процесс: все вызовы приходят из единственного потока AnalysisWorker,
+# поэтому экстракторы, процессоры и сохранитель создаются один раз и переиспользуются.
+_parser: FileParser | None = None
+
 
+def _get_parser() -> FileParser:
+    global _parser
+    if _parser is None:
+        _parser = FileParser()
+    return _parser
 
-def get_speech_features(file_path: str) -> dict:
+
+def get_speech_features(file_path: str, feature_names=None) -> dict:
     """
     Парсит WAV-файл как речь, извлекает признаки.
     Возвращает словарь {имя_признака: значение} для передачи в модель речи.
+    feature_names — имена нужных признаков (входы модели); None — полный набор (экран подробностей).
     """
-    parser = FileParser()
-    parser.parse_speech(file_path)
+    parser = _get_parser()
+    parser.parse_speech(file_path, _characteristics(feature_names))
     return parser.get_data()
 
 
-def get_voice_features(file_path: str) -> dict:
+def get_voice_features(file_path: str, feature_names=None) -> dict:
     """
     Парсит WAV-файл как голос (фоноваяция), извлекает признаки.
     Возвращает словарь {имя_признака: значение} для передачи в модель голоса.
+    feature_names — имена нужных признаков (входы модели); None — полный набор (экран подробностей).
     """
-    parser = FileParser()
-    parser.parse_voice(file_path)
+    parser = _get_parser()
+    parser.parse_voice(file_path, _characteristics(feature_names))
     return parser.get_data()
+
+
+def register_schema(schema: str, mode: str, feature_names) -> int:
+    """
+    Зарегистрировать порядок признаков один раз (из Java при первом анализе).
+    Дальше get_feature_vector возвращает значения в этом порядке без передачи имён.
+    Возвращает длину вектора.
+    """
+    if mode not in ("voice", "speech"):
+        raise ValueError(f"Unknown mode: {mode}")
+    _schemas[schema] = (mode, parse_characteristics(feature_names))
+    return len(_schemas[schema][1])
+
+
+def get_feature_vector(file_path: str, schema: str) -> np.ndarray:
+    """
+    Извлечь признаки схемы и вернуть их одним непрерывным массивом float64 в порядке схемы.
+    Java получает его как double[] одним копированием буфера; отсутствующее значение — NaN.
+    """
+    return _feature_vector(file_path, schema)
+
+
+def get_feature_vector_from_samples(samples, sample_rate: int, schema: str) -> np.ndarray:
+    """
+    То же, что get_feature_vector, но для записи в памяти: samples — short[] (16-bit PCM, моно) из Java.
+    Массив оборачивается в numpy и parselmouth.Sound без обращения к файловой системе.
+    """
+    return _feature_vector(_sound_from_samples(samples, sample_rate), schema)
+
+
+def _feature_vector(source, schema: str) -> np.ndarray:
+    mode, characteristics = _schemas[schema]
+    values = _extract(mode, source, characteristics)
+    return np.array([_to_float(values.get(c)) for c in characteristics], dtype=np.float64)
+
+
+def _extract(mode: str, source, characteristics: list[Characteristic]) -> dict:
+    parser = _get_parser()
+    if mode == "voice":
+        return parser.extract_voice(source, characteristics)
+    return parser.extract_speech(source, characteristics)
+
+
+def _sound_from_samples(samples, sample_rate: int) -> parselmouth.Sound:
+    # Java-массив поддерживает протокол буфера — отсчёты читаются без поэлементного обхода
+    try:
+        pcm = np.frombuffer(samples, dtype=np.int16)
+    except TypeError:
+        pcm = np.array(samples, dtype=np.int16)
+    # Масштаб как при чтении 16-битного WAV в Praat: [-1, 1)
+    return parselmouth.Sound(pcm / 32768.0, sampling_frequency=sample_rate)
+
+
+def _to_float(value) -> float:
+    try:
+        return float(value)
+    except (TypeError, ValueError):
+        return float("nan")
+
+
+def _characteristics(feature_names):
+    return None if feature_names is None else parse_characteristics(feature_names)
+
+
+def warm_up() -> None:
+    """
+    Прогрев при запуске приложения (первая задача AnalysisWorker).
+    Импорт модуля уже загрузил parselmouth, numpy и scipy; короткий синтетический сигнал
+    дополнительно инициализирует нативную часть Praat, чтобы первый анализ не платил за это.
+    """
+    _get_parser()
+    t = np.arange(0, 0.2, 1.0 / 16000)
+    sound = parselmouth.Sound(np.sin(2 * np.pi * 150.0 * t), sampling_frequency=16000)
+    sound.to_pitch()
@@ -0,0 +1,134 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Импорт файла: WAV приводится к 16-bit моно 16 кГц, остальное копируется без изменений —
+ * в том числе когда разбор заголовка прочитал больше, чем помещается в буфер отметки.
+ */
+public class AudioImporterTest {
+
+    private static final int RATE = 16000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void normalizesWavToMono16AtTargetRate() throws IOException {
+        int frames = 44100;
+        ByteBuffer stereo = WavFixture.samples(frames * 8);
+        for (int i = 0; i < frames; i++) {
+            stereo.putFloat(0.25f).putFloat(0.25f);
+        }
+        byte[] wav = new WavFixture().fmt(WavFixture.FORMAT_FLOAT, 2, 44100, 32).data(stereo.array()).toByteArray();
+        File target = folder.newFile("imported.wav");
+
+        assertTrue(AudioImporter.importAudio(() -> new ByteArrayInputStream(wav), target, RATE));
+
+        WavReader.Pcm pcm = WavReader.readMono16(target);
+        assertNotNull(pcm);
+        assertEquals(RATE, pcm.sampleRate);
+        assertEquals(RATE, pcm.samples.length);
+        assertEquals(8192, pcm.samples[pcm.samples.length / 2], 8);
+        assertEquals(WavHeader.SIZE + RATE * 2L, target.length());
+    }
+
+    @Test
+    public void keepsMono16AtTargetRateUnchanged() throws IOException {
+        short[] samples = new short[1000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (i * 31 - 15000);
+        }
+        File target = folder.newFile("same.wav");
+        assertTrue(AudioImporter.importAudio(() -> new ByteArrayInputStream(WavFixture.mono16(samples, RATE)),
+                target, RATE));
+        WavReader.Pcm pcm = WavReader.readMono16(target);
+        assertNotNull(pcm);
+        assertArrayEquals(samples, pcm.samples);
+    }
+
+    @Test
+    public void copiesNonWavAsIs() throws IOException {
+        byte[] mp3 = "ID3\u0004 not a wave stream".getBytes("UTF-8");
+        File target = folder.newFile("copy.mp3");
+        assertFalse(AudioImporter.importAudio(() -> new ByteArrayInputStream(mp3), target, RATE));
+        assertArrayEquals(mp3, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void copiesUnsupportedWavAfterLongChunks() throws IOException {
+        // 200 КБ метаданных до fmt ADPCM: разбор уходит дальше отметки, файл читается из источника заново
+        byte[] list = new byte[200 * 1024];
+        Arrays.fill(list, (byte) 7);
+        byte[] wav = new WavFixture().chunk("LIST", list).fmt(2, 1, RATE, 4).data(new byte[1000]).toByteArray();
+        int[] opened = {0};
+        File target = folder.newFile("adpcm.wav");
+
+        assertFalse(AudioImporter.importAudio(() -> {
+            opened[0]++;
+            return new ByteArrayInputStream(wav);
+        }, target, RATE));
+
+        assertEquals(2, opened[0]);
+        assertArrayEquals(wav, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void copiesUnsupportedWavWithinMarkWithoutReopening() throws IOException {
+        byte[] wav = new WavFixture().fmt(2, 1, RATE, 4).data(new byte[1000]).toByteArray();
+        int[] opened = {0};
+        File target = folder.newFile("adpcm-short.wav");
+
+        assertFalse(AudioImporter.importAudio(() -> {
+            opened[0]++;
+            return new ByteArrayInputStream(wav);
+        }, target, RATE));
+
+        assertEquals(1, opened[0]);
+        assertArrayEquals(wav, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void failedImportKeepsPreviousFile() throws IOException {
+        File target = folder.newFile("previous.wav");
+        byte[] previous = WavFixture.mono16(new short[]{1, 2, 3}, RATE);
+        Files.write(target.toPath(), previous);
+        byte[] wav = WavFixture.mono16(new short[RATE], RATE);
+        // Поток обрывается посреди данных: заголовок разобран, запись уже началась
+        byte[] truncated = Arrays.copyOf(wav, wav.length / 2);
+
+        try {
+            AudioImporter.importAudio(() -> new SequenceInputStream(new ByteArrayInputStream(truncated),
+                    new InputStream() {
+                        @Override
+                        public int read() throws IOException {
+                            throw new IOException("connection lost");
+                        }
+                    }), target, RATE);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // ok
+        }
+
+        assertArrayEquals(previous, Files.readAllBytes(target.toPath()));
+        assertFalse(new File(target.getPath() + AudioImporter.PARTIAL_SUFFIX).exists());
+    }
+}
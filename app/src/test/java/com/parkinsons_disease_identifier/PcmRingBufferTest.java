@@ -0,0 +1,130 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Кольцевой буфер записи: округление ёмкости, публикация и освобождение отсчётов, переход через конец массива.
+ */
+public class PcmRingBufferTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new PcmRingBuffer(5, false).capacity());
+        assertEquals(8, new PcmRingBuffer(8, false).capacity());
+        assertEquals(2, new PcmRingBuffer(0, true).capacity());
+        assertEquals(32768, new PcmRingBuffer(32768, true).capacity());
+    }
+
+    @Test
+    public void sampleTypeSelectsArray() {
+        PcmRingBuffer shorts = new PcmRingBuffer(8, false);
+        assertFalse(shorts.isFloat());
+        assertNull(shorts.floatArray());
+        assertEquals(8, shorts.shortArray().length);
+
+        PcmRingBuffer floats = new PcmRingBuffer(8, true);
+        assertTrue(floats.isFloat());
+        assertNull(floats.shortArray());
+        assertEquals(8, floats.floatArray().length);
+    }
+
+    @Test
+    public void commitPublishesAndReleaseFreesSpace() {
+        PcmRingBuffer ring = new PcmRingBuffer(8, false);
+        assertEquals(8, ring.writableContiguous());
+        assertEquals(0, ring.readableContiguous());
+
+        write(ring, 0, 5);
+        assertEquals(5, ring.readableContiguous());
+        assertEquals(3, ring.writableContiguous());
+        assertEquals(0, ring.readOffset());
+
+        ring.release(2);
+        assertEquals(2, ring.readOffset());
+        assertEquals(3, ring.readableContiguous());
+        // Освобождённое место в начале массива станет доступно только после перехода через конец
+        assertEquals(3, ring.writableContiguous());
+    }
+
+    @Test
+    public void fullBufferHasNoSpaceUntilRelease() {
+        PcmRingBuffer ring = new PcmRingBuffer(8, false);
+        write(ring, 0, 8);
+        assertEquals(0, ring.writableContiguous());
+        assertEquals(8, ring.readableContiguous());
+
+        ring.release(3);
+        assertEquals(0, ring.writeOffset());
+        assertEquals(3, ring.writableContiguous());
+    }
+
+    @Test
+    public void readAndWriteWrapAroundEnd() {
+        PcmRingBuffer ring = new PcmRingBuffer(8, false);
+        write(ring, 0, 6);
+        ring.release(6);
+
+        // Запись с позиции 6: до конца массива только 2 отсчёта
+        assertEquals(6, ring.writeOffset());
+        assertEquals(2, ring.writableContiguous());
+        write(ring, 6, 2);
+        assertEquals(0, ring.writeOffset());
+        assertEquals(6, ring.writableContiguous());
+        write(ring, 8, 3);
+
+        // Чтение тоже делится на два непрерывных участка: [6, 8) и [0, 3)
+        assertEquals(6, ring.readOffset());
+        assertEquals(2, ring.readableContiguous());
+        assertEquals(6, ring.shortArray()[6]);
+        assertEquals(7, ring.shortArray()[7]);
+        ring.release(2);
+        assertEquals(0, ring.readOffset());
+        assertEquals(3, ring.readableContiguous());
+        assertEquals(8, ring.shortArray()[0]);
+        assertEquals(10, ring.shortArray()[2]);
+        ring.release(3);
+        assertEquals(0, ring.readableContiguous());
+        assertEquals(5, ring.writableContiguous());
+    }
+
+    @Test
+    public void preservesSequenceOverManyWraps() {
+        PcmRingBuffer ring = new PcmRingBuffer(16, true);
+        int written = 0;
+        int read = 0;
+        for (int round = 0; round < 200; round++) {
+            int toWrite = Math.min(ring.writableContiguous(), 1 + round % 7);
+            int offset = ring.writeOffset();
+            for (int i = 0; i < toWrite; i++) {
+                ring.floatArray()[offset + i] = written + i;
+            }
+            ring.commit(toWrite);
+            written += toWrite;
+
+            int toRead = Math.min(ring.readableContiguous(), 1 + round % 5);
+            int readOffset = ring.readOffset();
+            for (int i = 0; i < toRead; i++) {
+                assertEquals(read + i, ring.floatArray()[readOffset + i], 0f);
+            }
+            ring.release(toRead);
+            read += toRead;
+        }
+        assertTrue(written > 3 * ring.capacity());
+        assertTrue(written - read <= ring.capacity());
+    }
+
+    /** Записать значения start, start + 1, … одним куском и опубликовать их. */
+    private static void write(PcmRingBuffer ring, int start, int count) {
+        assertTrue(count <= ring.writableContiguous());
+        int offset = ring.writeOffset();
+        for (int i = 0; i < count; i++) {
+            ring.shortArray()[offset + i] = (short) (start + i);
+        }
+        ring.commit(count);
+    }
+}
@@ -0,0 +1,100 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Передискретизация: длина выхода round(вход × L / M), единичное усиление постоянной составляющей,
+ * независимость результата от размера порций.
+ */
+public class PolyphaseResamplerTest {
+
+    @Test
+    public void outputLengthMatchesRatio() {
+        int[][] rates = {{44100, 16000}, {48000, 16000}, {8000, 16000}, {22050, 16000}, {16000, 16000}};
+        for (int[] r : rates) {
+            for (int length : new int[]{1, 999, 4096, 44101}) {
+                int produced = resample(new float[length], r[0], r[1], 4096).length;
+                assertEquals(r[0] + " -> " + r[1] + ", " + length,
+                        Math.round((double) length * r[1] / r[0]), produced);
+            }
+        }
+    }
+
+    @Test
+    public void dcGainIsUnity() {
+        for (int[] r : new int[][]{{44100, 16000}, {48000, 16000}, {8000, 16000}, {11025, 16000}}) {
+            float[] input = new float[r[0]];
+            Arrays.fill(input, 0.5f);
+            float[] output = resample(input, r[0], r[1], 1000);
+            // Края искажены переходным процессом фильтра — проверяем середину
+            for (int i = output.length / 4; i < output.length * 3 / 4; i++) {
+                assertEquals(r[0] + " -> " + r[1] + " at " + i, 0.5f, output[i], 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void equalRatesPassThrough() {
+        float[] input = {0.1f, -0.2f, 0.3f, -0.4f, 0.5f};
+        assertArrayEquals(input, resample(input, 16000, 16000, 2), 0f);
+    }
+
+    @Test
+    public void resultDoesNotDependOnChunking() {
+        float[] input = new float[10000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) Math.sin(2 * Math.PI * 440 * i / 44100.0);
+        }
+        assertArrayEquals(resample(input, 44100, 16000, input.length), resample(input, 44100, 16000, 37), 1e-6f);
+    }
+
+    @Test
+    public void keepsToneInPassband() {
+        // 1 кГц при 48 → 16 кГц проходит без ослабления: амплитуда в середине около 1
+        int inRate = 48000;
+        float[] input = new float[inRate];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) Math.sin(2 * Math.PI * 1000 * i / (double) inRate);
+        }
+        float[] output = resample(input, inRate, 16000, 4096);
+        float peak = 0;
+        for (int i = output.length / 4; i < output.length * 3 / 4; i++) {
+            peak = Math.max(peak, Math.abs(output[i]));
+        }
+        assertEquals(1f, peak, 0.01f);
+    }
+
+    @Test
+    public void rejectsBadRates() {
+        for (int[] r : new int[][]{{0, 16000}, {16000, -1}, {16001, 16000}}) {
+            try {
+                new PolyphaseResampler(r[0], r[1]);
+                fail("Expected IllegalArgumentException for " + r[0] + " -> " + r[1]);
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    private static float[] resample(float[] input, int inRate, int outRate, int chunk) {
+        PolyphaseResampler resampler = new PolyphaseResampler(inRate, outRate);
+        float[] out = new float[resampler.maxOutput(input.length) + resampler.maxOutput(4096)];
+        float[] buffer = new float[Math.max(resampler.maxOutput(chunk), resampler.maxOutput(4096))];
+        int count = 0;
+        for (int offset = 0; offset < input.length; offset += chunk) {
+            int n = resampler.process(input, offset, Math.min(chunk, input.length - offset), buffer);
+            System.arraycopy(buffer, 0, out, count, n);
+            count += n;
+        }
+        int n = resampler.flush(buffer);
+        System.arraycopy(buffer, 0, out, count, n);
+        count += n;
+        return Arrays.copyOf(out, count);
+    }
+}
@@ -0,0 +1,85 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Сборка WAV-файлов для тестов: чанки добавляются в любом порядке, размер RIFF дописывается в {@link #toByteArray}.
+ */
+final class WavFixture {
+
+    static final int FORMAT_PCM = 1;
+    static final int FORMAT_FLOAT = 3;
+    static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    /** Чанк fmt из 16 байт; blockAlign и байт/с считаются по формату. */
+    WavFixture fmt(int format, int channels, int sampleRate, int bits) {
+        return fmt(format, channels, sampleRate, bits, channels * bits / 8);
+    }
+
+    WavFixture fmt(int format, int channels, int sampleRate, int bits, int blockAlign) {
+        return chunk("fmt ", fmtBody(format, channels, sampleRate, bits, blockAlign, 16).array());
+    }
+
+    /** WAVE_FORMAT_EXTENSIBLE (40 байт) с подформатом {@code subFormat} в первых байтах GUID. */
+    WavFixture fmtExtensible(int subFormat, int channels, int sampleRate, int bits) {
+        ByteBuffer fmt = fmtBody(FORMAT_EXTENSIBLE, channels, sampleRate, bits, channels * bits / 8, 40);
+        fmt.putShort(16, (short) 22);
+        fmt.putShort(18, (short) bits);
+        fmt.putShort(24, (short) subFormat);
+        return chunk("fmt ", fmt.array());
+    }
+
+    WavFixture chunk(String tag, byte[] data) {
+        return chunk(tag, data, data.length);
+    }
+
+    /** Чанк с явно заданным размером в заголовке (0 — «размер не записан» для data). */
+    WavFixture chunk(String tag, byte[] data, long declaredSize) {
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(tag.getBytes(StandardCharsets.US_ASCII)).putInt((int) declaredSize);
+        body.write(header.array(), 0, 8);
+        body.write(data, 0, data.length);
+        if ((data.length & 1) != 0) {
+            body.write(0);
+        }
+        return this;
+    }
+
+    WavFixture data(byte[] samples) {
+        return chunk("data", samples);
+    }
+
+    byte[] toByteArray() {
+        ByteBuffer riff = ByteBuffer.allocate(12 + body.size()).order(ByteOrder.LITTLE_ENDIAN);
+        riff.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt(4 + body.size())
+                .put("WAVE".getBytes(StandardCharsets.US_ASCII)).put(body.toByteArray());
+        return riff.array();
+    }
+
+    /** 16-bit PCM моно в формате {@link WavHeader}. */
+    static byte[] mono16(short[] samples, int sampleRate) {
+        ByteBuffer pcm = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        pcm.asShortBuffer().put(samples);
+        return new WavFixture().fmt(FORMAT_PCM, 1, sampleRate, 16).data(pcm.array()).toByteArray();
+    }
+
+    static ByteBuffer samples(int bytes) {
+        return ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer fmtBody(int format, int channels, int sampleRate, int bits, int blockAlign, int size) {
+        ByteBuffer fmt = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        fmt.putShort(0, (short) format);
+        fmt.putShort(2, (short) channels);
+        fmt.putInt(4, sampleRate);
+        fmt.putInt(8, sampleRate * blockAlign);
+        fmt.putShort(12, (short) blockAlign);
+        fmt.putShort(14, (short) bits);
+        return fmt;
+    }
+}
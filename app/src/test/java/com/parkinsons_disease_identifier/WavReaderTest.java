@@ -0,0 +1,186 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Разбор заголовка WAV (порядок чанков, форматы отсчётов, проверка blockAlign) и сведение в моно.
+ */
+public class WavReaderTest {
+
+    private static final float EPS = 1e-6f;
+
+    @Test
+    public void skipsChunksBeforeAndBetweenFmtAndData() throws IOException {
+        ByteBuffer pcm = WavFixture.samples(4);
+        pcm.putShort((short) 16384).putShort((short) -8192);
+        byte[] wav = new WavFixture()
+                .chunk("LIST", new byte[]{1, 2, 3}) // нечётный размер — чанк выравнивается байтом
+                .fmt(WavFixture.FORMAT_PCM, 1, 16000, 16)
+                .chunk("fact", new byte[]{0, 0, 0, 0})
+                .data(pcm.array())
+                .chunk("bext", new byte[10])
+                .toByteArray();
+
+        float[] mono = readAll(wav, 2);
+        assertArrayEquals(new float[]{0.5f, -0.25f}, mono, EPS);
+    }
+
+    @Test
+    public void rejectsDataBeforeFmt() {
+        byte[] wav = new WavFixture().data(new byte[4]).fmt(WavFixture.FORMAT_PCM, 1, 16000, 16).toByteArray();
+        assertNotOpened(wav);
+    }
+
+    @Test
+    public void rejectsNonRiff() {
+        assertNotOpened("ID3 not a wave file".getBytes());
+    }
+
+    @Test
+    public void readsUnsigned8Bit() throws IOException {
+        byte[] wav = new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 8000, 8)
+                .data(new byte[]{(byte) 128, (byte) 192, 0}).toByteArray();
+        WavReader reader = WavReader.open(new ByteArrayInputStream(wav));
+        assertEquals(8000, reader.getSampleRate());
+        assertEquals(8, reader.getBitsPerSample());
+        float[] mono = new float[3];
+        assertEquals(3, reader.readMono(mono, 0, 3));
+        assertArrayEquals(new float[]{0f, 0.5f, -1f}, mono, EPS);
+    }
+
+    @Test
+    public void readsSigned24Bit() throws IOException {
+        // 0x400000 = +0,5; 0xC00000 = −0,5 (знак в старшем байте)
+        byte[] data = {0, 0, 0x40, 0, 0, (byte) 0xC0};
+        byte[] wav = new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 48000, 24).data(data).toByteArray();
+        assertArrayEquals(new float[]{0.5f, -0.5f}, readAll(wav, 2), EPS);
+    }
+
+    @Test
+    public void readsFloat32And64() throws IOException {
+        ByteBuffer f32 = WavFixture.samples(8);
+        f32.putFloat(0.25f).putFloat(-0.75f);
+        byte[] wav32 = new WavFixture().fmt(WavFixture.FORMAT_FLOAT, 1, 44100, 32).data(f32.array()).toByteArray();
+        assertArrayEquals(new float[]{0.25f, -0.75f}, readAll(wav32, 2), EPS);
+
+        ByteBuffer f64 = WavFixture.samples(16);
+        f64.putDouble(0.125).putDouble(-1.0);
+        byte[] wav64 = new WavFixture().fmt(WavFixture.FORMAT_FLOAT, 1, 44100, 64).data(f64.array()).toByteArray();
+        WavReader reader = WavReader.open(new ByteArrayInputStream(wav64));
+        assertTrue(reader.isFloat());
+        float[] mono = new float[2];
+        assertEquals(2, reader.readMono(mono, 0, 2));
+        assertArrayEquals(new float[]{0.125f, -1f}, mono, EPS);
+    }
+
+    @Test
+    public void readsExtensibleAndMixesChannels() throws IOException {
+        ByteBuffer stereo = WavFixture.samples(8);
+        stereo.putShort((short) 16384).putShort((short) 0).putShort((short) -16384).putShort((short) -16384);
+        byte[] wav = new WavFixture().fmtExtensible(WavFixture.FORMAT_PCM, 2, 22050, 16)
+                .data(stereo.array()).toByteArray();
+        WavReader reader = WavReader.open(new ByteArrayInputStream(wav));
+        assertEquals(2, reader.getChannels());
+        assertFalse(reader.isFloat());
+        float[] mono = new float[2];
+        assertEquals(2, reader.readMono(mono, 0, 2));
+        assertArrayEquals(new float[]{0.25f, -0.5f}, mono, EPS);
+    }
+
+    @Test
+    public void readsExtensibleFloat() throws IOException {
+        ByteBuffer f32 = WavFixture.samples(4);
+        f32.putFloat(0.5f);
+        byte[] wav = new WavFixture().fmtExtensible(WavFixture.FORMAT_FLOAT, 1, 16000, 32)
+                .data(f32.array()).toByteArray();
+        assertArrayEquals(new float[]{0.5f}, readAll(wav, 1), EPS);
+    }
+
+    @Test
+    public void rejectsBlockAlignThatDisagreesWithFormat() {
+        byte[] padded = new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 16000, 16, 4096)
+                .data(new byte[8192]).toByteArray();
+        assertNotOpened(padded);
+        byte[] truncated = new WavFixture().fmt(WavFixture.FORMAT_PCM, 2, 16000, 16, 2)
+                .data(new byte[8]).toByteArray();
+        assertNotOpened(truncated);
+    }
+
+    @Test
+    public void rejectsUnsupportedFormats() {
+        assertNotOpened(new WavFixture().fmt(2, 1, 16000, 4).data(new byte[4]).toByteArray()); // ADPCM
+        assertNotOpened(new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 16000, 12).data(new byte[4]).toByteArray());
+        assertNotOpened(new WavFixture().fmt(WavFixture.FORMAT_PCM, 64, 16000, 16).data(new byte[128]).toByteArray());
+    }
+
+    @Test
+    public void unknownDataSizeReadsToEndAndDropsPartialFrame() throws IOException {
+        ByteBuffer pcm = WavFixture.samples(5);
+        pcm.putShort((short) 8192).putShort((short) 8192).put((byte) 1);
+        byte[] wav = new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 16000, 16)
+                .chunk("data", pcm.array(), 0).toByteArray();
+        // Выравнивающий байт нечётного чанка тоже попадает в «данные до конца потока»: 6 байт = 3 кадра
+        float[] mono = readAll(wav, 3);
+        assertEquals(0.25f, mono[0], EPS);
+        assertEquals(0.25f, mono[1], EPS);
+    }
+
+    @Test
+    public void readDataReturnsRawBytesOfDataChunkOnly() throws IOException {
+        byte[] data = {1, 2, 3, 4, 5, 6};
+        byte[] wav = new WavFixture().fmt(WavFixture.FORMAT_PCM, 1, 16000, 16).data(data)
+                .chunk("LIST", new byte[]{9, 9}).toByteArray();
+        WavReader reader = WavReader.open(new ByteArrayInputStream(wav));
+        byte[] raw = new byte[16];
+        int total = 0;
+        int n;
+        while ((n = reader.readData(raw, total, 4)) >= 0) {
+            total += n;
+        }
+        assertEquals(data.length, total);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], raw[i]);
+        }
+    }
+
+    @Test
+    public void toPcm16RoundsAndSaturates() {
+        short[] pcm = new short[4];
+        WavReader.toPcm16(new float[]{0.5f, -1f, 1f, -2f}, 0, pcm, 0, 4);
+        assertArrayEquals(new short[]{16384, -32768, 32767, -32768}, pcm);
+    }
+
+    /** Прочитать ровно {@code frames} кадров моно и убедиться, что дальше данных нет. */
+    private static float[] readAll(byte[] wav, int frames) throws IOException {
+        WavReader reader = WavReader.open(new ByteArrayInputStream(wav));
+        float[] mono = new float[frames + 8];
+        int count = 0;
+        int n;
+        while ((n = reader.readMono(mono, count, mono.length - count)) > 0) {
+            count += n;
+        }
+        assertEquals(frames, count);
+        float[] result = new float[frames];
+        System.arraycopy(mono, 0, result, 0, frames);
+        return result;
+    }
+
+    private static void assertNotOpened(byte[] wav) {
+        try {
+            WavReader.open(new ByteArrayInputStream(wav));
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.parkinsons_disease_identifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Импорт WAV ({@link AudioImporter}): прежнее побайтовое копирование против декодирования 24-bit стерео,
+ * сведения в моно и передискретизации до 16 кГц ({@link PolyphaseResampler}) с записью через {@link WavFileWriter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AudioImportBenchmark {
+
+    private static final int TARGET_RATE_HZ = 16000;
+    private static final int CHANNELS = 2;
+    private static final int BITS = 24;
+
+    /** Частота исходного файла: 16 кГц — без передискретизации, 44,1 кГц — дробный коэффициент 160/441. */
+    @Param({"16000", "44100", "48000"})
+    public int sourceRate;
+
+    @Param({"5"})
+    public int seconds;
+
+    private byte[] wav;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        int frames = seconds * sourceRate;
+        int dataBytes = frames * CHANNELS * BITS / 8;
+        ByteBuffer buffer = ByteBuffer.allocate(WavHeader.SIZE + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        WavHeader.put(buffer, sourceRate, CHANNELS, BITS, dataBytes);
+        for (int i = 0; i < frames; i++) {
+            int sample = (int) (2_000_000 * Math.sin(2 * Math.PI * 150 * i / sourceRate));
+            for (int c = 0; c < CHANNELS; c++) {
+                buffer.put((byte) sample).put((byte) (sample >> 8)).put((byte) (sample >> 16));
+            }
+        }
+        wav = buffer.array();
+        file = File.createTempFile("import-benchmark", ".wav");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long copyBytes() throws IOException {
+        // Прежний путь loadAudioFromUri: не WAV-заголовок не разбирается, файл копируется как есть
+        AudioImporter.importAudio(() -> new ByteArrayInputStream(wav, WavHeader.SIZE, wav.length - WavHeader.SIZE),
+                file, TARGET_RATE_HZ);
+        return file.length();
+    }
+
+    @Benchmark
+    public long normalize() throws IOException {
+        AudioImporter.importAudio(() -> new ByteArrayInputStream(wav), file, TARGET_RATE_HZ);
+        return file.length();
+    }
+}
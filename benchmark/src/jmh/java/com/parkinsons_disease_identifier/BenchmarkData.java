@@ -0,0 +1,71 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Типичные значения признаков парсера для бенчмарков (порядок ключей как в словаре get_data()). */
+final class BenchmarkData {
+
+    private static final String[] VOICE_KEYS = {
+            "F0_RANGE", "INTENSITY_RANGE", "JITTER_PPQ5", "SHIMMER_LOCAL", "HNR", "F1", "F2"
+    };
+    private static final double[] VOICE_VALUES = {
+            48.7, 21.3, 0.0031, 0.034, 19.8, 612.0, 1544.0
+    };
+
+    private static final String[] SPEECH_KEYS = {
+            "JITTER_LOCAL", "JITTER_ABS", "JITTER_PPQ5", "SHIMMER_DB", "SHIMMER_APQ3", "SHIMMER_APQ11", "HNR", "PPE"
+    };
+    private static final double[] SPEECH_VALUES = {
+            0.0052, 4.1e-5, 0.0029, 0.31, 0.0154, 0.0287, 20.4, 0.21
+    };
+
+    private BenchmarkData() {
+    }
+
+    /** Словарь признаков в том виде, в каком его собирают экраны анализа: Double-значения плюс FILEPATH. */
+    static Map<String, Object> parserData(ParkinsonOnnxPredictor.ModelType type) {
+        String[] keys = type == ParkinsonOnnxPredictor.ModelType.VOICE ? VOICE_KEYS : SPEECH_KEYS;
+        double[] values = type == ParkinsonOnnxPredictor.ModelType.VOICE ? VOICE_VALUES : SPEECH_VALUES;
+        Map<String, Object> data = new HashMap<>();
+        data.put("FILEPATH", "/data/user/0/com.parkinsons_disease_identifier/files/recording.wav");
+        for (int i = 0; i < keys.length; i++) {
+            data.put(keys[i], values[i]);
+        }
+        return data;
+    }
+
+    /** Вектор признаков в порядке {@link ParkinsonOnnxPredictor.ModelType#featureOrder}. */
+    static float[] features(ParkinsonOnnxPredictor.ModelType type) {
+        Map<String, Object> data = parserData(type);
+        float[] row = new float[type.featureOrder.length];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = ((Double) data.get(type.plan.parserKey(i))).floatValue();
+        }
+        return row;
+    }
+
+    /** Строки батча с небольшим разбросом, чтобы деревья шли по разным листьям. */
+    static float[][] rows(ParkinsonOnnxPredictor.ModelType type, int count) {
+        float[] base = features(type);
+        float[][] rows = new float[count][];
+        for (int r = 0; r < count; r++) {
+            rows[r] = base.clone();
+            for (int i = 0; i < base.length; i++) {
+                rows[r][i] *= 0.8f + 0.4f * ((r * 31 + i * 17) % 100) / 100f;
+            }
+        }
+        return rows;
+    }
+
+    /** Файл модели в каталоге моделей; ошибка с подсказкой, если модель ещё не выгружена. */
+    static File modelFile(String modelDir, String name) {
+        File file = new File(modelDir, name);
+        if (!file.isFile()) {
+            throw new IllegalStateException("Model not found: " + file.getAbsolutePath()
+                    + " (export it with app/src/ai_models/catboost_onnx_converter.py)");
+        }
+        return file;
+    }
+}
@@ -0,0 +1,48 @@
+package com.parkinsons_disease_identifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Сборка входного вектора модели из словаря парсера и из готового массива. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FeaturePlanBenchmark {
+
+    @Param({"VOICE", "SPEECH"})
+    public ParkinsonOnnxPredictor.ModelType modelType;
+
+    private Map<String, Object> parserData;
+    private float[] features;
+    private FloatBuffer input;
+
+    @Setup
+    public void setUp() {
+        parserData = BenchmarkData.parserData(modelType);
+        features = BenchmarkData.features(modelType);
+        input = ByteBuffer.allocateDirect(modelType.plan.size() * Float.BYTES)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    @Benchmark
+    public boolean fillFromParserMap() {
+        return modelType.plan.fill(parserData, input, 0);
+    }
+
+    @Benchmark
+    public boolean fillFromArray() {
+        return modelType.plan.fill(features, input, 0);
+    }
+}
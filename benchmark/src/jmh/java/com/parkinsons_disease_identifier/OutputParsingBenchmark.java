@@ -0,0 +1,104 @@
+package com.parkinsons_disease_identifier;
+
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.ValueInfo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение вероятностей из выхода модели: тензор float [N, 2] против ZipMap (список словарей класс → вероятность).
+ * Выход ZipMap подставляется уже разобранным в Java-объекты, поэтому измеряется только обход результата.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OutputParsingBenchmark {
+
+    @Param({"1", "64"})
+    public int rows;
+
+    private final ProbabilityReader.Tensor tensorReader = new ProbabilityReader.Tensor("probabilities", 2, 2, true);
+    private final ProbabilityReader zipMapReader = new ProbabilityReader.ZipMap("probabilities", 1L, true);
+
+    private FloatBuffer tensorOutput;
+    private OnnxValue zipMapOutput;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        float[] probabilities = new float[rows * 2];
+        List<Map<Long, Float>> maps = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            float p = (i % 10) / 10f;
+            probabilities[i * 2] = 1f - p;
+            probabilities[i * 2 + 1] = p;
+            Map<Long, Float> map = new HashMap<>();
+            map.put(0L, 1f - p);
+            map.put(1L, p);
+            maps.add(map);
+        }
+        tensorOutput = FloatBuffer.wrap(probabilities);
+        zipMapOutput = new ListValue(maps);
+        out = new double[rows];
+    }
+
+    @Benchmark
+    public double[] readTensor() {
+        tensorReader.read(tensorOutput, rows, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] readZipMap() throws Exception {
+        zipMapReader.read(zipMapOutput, rows, out);
+        return out;
+    }
+
+    /** Значение ONNX с готовым Java-содержимым (как OnnxSequence после getValue()). */
+    private static final class ListValue implements OnnxValue {
+
+        private final List<?> value;
+
+        ListValue(List<?> value) {
+            this.value = value;
+        }
+
+        @Override
+        public OnnxValueType getType() {
+            return OnnxValueType.ONNX_TYPE_SEQUENCE;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public ValueInfo getInfo() {
+            return null;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
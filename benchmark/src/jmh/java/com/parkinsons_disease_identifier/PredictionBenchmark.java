@@ -0,0 +1,83 @@
+package com.parkinsons_disease_identifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Предсказание одной строки и батча для обеих реализаций {@link ParkinsonPredictor}.
+ * ONNX-бэкенд использует десктопный ONNX Runtime той же версии, что и на устройстве.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PredictionBenchmark {
+
+    @Param({"VOICE", "SPEECH"})
+    public ParkinsonOnnxPredictor.ModelType modelType;
+
+    @Param({"ONNX", "CATBOOST_JAVA"})
+    public String backend;
+
+    /** Каталог с выгруженными моделями относительно каталога модуля benchmark. */
+    @Param({"../app/src/ai_models"})
+    public String modelDir;
+
+    @Param({"64"})
+    public int batchSize;
+
+    private ParkinsonPredictor predictor;
+    private Map<String, Object> parserData;
+    private float[] features;
+    private float[][] batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("ONNX".equals(backend)) {
+            predictor = new ParkinsonOnnxPredictor(
+                    BenchmarkData.modelFile(modelDir, modelType.assetName), modelType, PredictorConfig.DEFAULT);
+        } else {
+            try (InputStream json = new FileInputStream(BenchmarkData.modelFile(modelDir, modelType.jsonAssetName))) {
+                predictor = new CatBoostTreePredictor(json, modelType);
+            }
+        }
+        parserData = BenchmarkData.parserData(modelType);
+        features = BenchmarkData.features(modelType);
+        batch = BenchmarkData.rows(modelType, batchSize);
+        if (predictor.predict(features) < 0) {
+            throw new IllegalStateException("Prediction failed for " + modelType + " / " + backend);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        predictor.close();
+    }
+
+    @Benchmark
+    public double predictParserMap() {
+        return predictor.predict(parserData);
+    }
+
+    @Benchmark
+    public double predictArray() {
+        return predictor.predict(features);
+    }
+
+    @Benchmark
+    public double[] predictBatch() {
+        return predictor.predictBatch(batch);
+    }
+}
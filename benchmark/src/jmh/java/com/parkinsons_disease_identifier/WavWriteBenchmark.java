@@ -0,0 +1,107 @@
+package com.parkinsons_disease_identifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись WAV: прежняя потоковая схема (пустой заголовок, PCM кусками, заголовок в конце),
+ * сохранение записи из памяти одним блоком через {@link WavHeader#writeMono16} и запись по ходу захвата,
+ * как в потоке записи {@link WavRecorder}, — пакетами через {@link WavFileWriter}.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WavWriteBenchmark {
+
+    private static final int SAMPLE_RATE_HZ = 16000;
+
+    /** Размер куска, который AudioRecord отдаёт за один read (WavRecorder: не меньше 4096). */
+    @Param({"4096", "16384"})
+    public int chunkBytes;
+
+    /** Длительность записи; 5 с — типичная фонация гласной. */
+    @Param({"5"})
+    public int seconds;
+
+    private byte[] chunk;
+    private short[] samples;
+    private ByteBuffer header;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        chunk = new byte[chunkBytes];
+        for (int i = 0; i < chunk.length; i += 2) {
+            short sample = (short) (8000 * Math.sin(2 * Math.PI * 150 * (i / 2) / SAMPLE_RATE_HZ));
+            chunk[i] = (byte) sample;
+            chunk[i + 1] = (byte) (sample >> 8);
+        }
+        samples = new short[seconds * SAMPLE_RATE_HZ];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (8000 * Math.sin(2 * Math.PI * 150 * i / SAMPLE_RATE_HZ));
+        }
+        header = ByteBuffer.allocate(WavHeader.SIZE);
+        file = File.createTempFile("wav-benchmark", ".wav");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public ByteBuffer buildHeader() {
+        header.clear();
+        WavHeader.put(header, SAMPLE_RATE_HZ, 1, 16, seconds * SAMPLE_RATE_HZ * 2);
+        return header;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long writeRecording() throws IOException {
+        long pcmBytes = (long) seconds * SAMPLE_RATE_HZ * 2;
+        try (RandomAccessFile wav = new RandomAccessFile(file, "rw")) {
+            wav.setLength(0);
+            wav.write(new byte[WavHeader.SIZE]);
+            for (long written = 0; written < pcmBytes; written += chunk.length) {
+                wav.write(chunk, 0, (int) Math.min(chunk.length, pcmBytes - written));
+            }
+            WavHeader.write(wav, SAMPLE_RATE_HZ, 1, 16, (int) (wav.length() - WavHeader.SIZE));
+            return wav.length();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long archiveFromMemory() throws IOException {
+        WavHeader.writeMono16(file, samples, samples.length, SAMPLE_RATE_HZ);
+        return file.length();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public long writeBatched() throws IOException {
+        int chunkSamples = chunkBytes / 2;
+        WavFileWriter wav = new WavFileWriter(file, SAMPLE_RATE_HZ, WavFileWriter.DEFAULT_BATCH_BYTES);
+        for (int i = 0; i < samples.length; i += chunkSamples) {
+            wav.write(samples, i, Math.min(chunkSamples, samples.length - i));
+        }
+        wav.close();
+        return file.length();
+    }
+}
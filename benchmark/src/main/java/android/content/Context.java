@@ -0,0 +1,24 @@
+package android.content;
+
+import android.content.pm.PackageManager;
+import android.content.res.AssetManager;
+
+import java.io.File;
+
+/** Заглушка android.content.Context: только методы, которые вызывают классы предсказания. */
+public abstract class Context {
+
+    public static final int MODE_PRIVATE = 0;
+
+    public abstract Context getApplicationContext();
+
+    public abstract AssetManager getAssets();
+
+    public abstract File getFilesDir();
+
+    public abstract PackageManager getPackageManager();
+
+    public abstract String getPackageName();
+
+    public abstract SharedPreferences getSharedPreferences(String name, int mode);
+}
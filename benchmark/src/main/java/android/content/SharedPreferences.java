@@ -0,0 +1,24 @@
+package android.content;
+
+/** Заглушка android.content.SharedPreferences: чтение и запись настроек, которые использует PredictorConfig. */
+public interface SharedPreferences {
+
+    String getString(String key, String defValue);
+
+    int getInt(String key, int defValue);
+
+    boolean getBoolean(String key, boolean defValue);
+
+    Editor edit();
+
+    interface Editor {
+
+        Editor putString(String key, String value);
+
+        Editor putInt(String key, int value);
+
+        Editor putBoolean(String key, boolean value);
+
+        void apply();
+    }
+}
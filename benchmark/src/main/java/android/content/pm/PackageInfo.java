@@ -0,0 +1,7 @@
+package android.content.pm;
+
+/** Заглушка android.content.pm.PackageInfo. */
+public class PackageInfo {
+    public int versionCode;
+    public long lastUpdateTime;
+}
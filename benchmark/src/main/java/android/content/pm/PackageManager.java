@@ -0,0 +1,13 @@
+package android.content.pm;
+
+/** Заглушка android.content.pm.PackageManager. */
+public abstract class PackageManager {
+
+    public abstract PackageInfo getPackageInfo(String packageName, int flags) throws NameNotFoundException;
+
+    public static class NameNotFoundException extends Exception {
+        public NameNotFoundException(String name) {
+            super(name);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package android.content.res;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Заглушка android.content.res.AssetManager. */
+public abstract class AssetManager {
+
+    public abstract InputStream open(String fileName) throws IOException;
+}
@@ -0,0 +1,15 @@
+package android.util;
+
+/** Заглушка android.util.JsonToken: те же значения, что у com.google.gson.stream.JsonToken. */
+public enum JsonToken {
+    BEGIN_ARRAY,
+    END_ARRAY,
+    BEGIN_OBJECT,
+    END_OBJECT,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    END_DOCUMENT
+}
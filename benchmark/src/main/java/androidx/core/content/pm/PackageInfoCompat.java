@@ -0,0 +1,14 @@
+package androidx.core.content.pm;
+
+import android.content.pm.PackageInfo;
+
+/** Заглушка androidx.core.content.pm.PackageInfoCompat. */
+public final class PackageInfoCompat {
+
+    private PackageInfoCompat() {
+    }
+
+    public static long getLongVersionCode(PackageInfo info) {
+        return info.versionCode;
+    }
+}
@@ -0,0 +1,161 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * {@link CatBoostTreePredictor} против эталонного {@link ParkinsonOnnxPredictor} (десктопный ONNX Runtime)
+ * на фиксированных строках: всегда — на сгенерированной модели {@link TreeEnsembleFixture},
+ * и на выгруженных моделях приложения, если они лежат в app/src/ai_models (catboost_onnx_converter.py).
+ * Обе реализации сверяются и с самим CatBoost: небольшая модель, выгруженная CatBoost в JSON и ONNX,
+ * и её вероятности predict_proba лежат в src/test/resources/catboost_fixture (make_parity_fixture.py).
+ */
+public class CatBoostOnnxParityTest {
+
+    /** Вероятности ONNX считаются во float, CatBoostTreePredictor суммирует листья в double. */
+    private static final double TOLERANCE = 1e-5;
+    private static final String MODEL_DIR = System.getProperty("modelDir", "../app/src/ai_models");
+    private static final String CATBOOST_FIXTURE_DIR =
+            System.getProperty("catboostFixtureDir", "src/test/resources/catboost_fixture");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fixtureVoiceModelMatchesOnnx() throws Exception {
+        assertFixtureParity(ParkinsonOnnxPredictor.ModelType.VOICE, 11L);
+    }
+
+    @Test
+    public void fixtureSpeechModelMatchesOnnx() throws Exception {
+        assertFixtureParity(ParkinsonOnnxPredictor.ModelType.SPEECH, 12L);
+    }
+
+    @Test
+    public void exportedVoiceModelMatchesOnnx() throws Exception {
+        assertExportedParity(ParkinsonOnnxPredictor.ModelType.VOICE);
+    }
+
+    @Test
+    public void exportedSpeechModelMatchesOnnx() throws Exception {
+        assertExportedParity(ParkinsonOnnxPredictor.ModelType.SPEECH);
+    }
+
+    @Test
+    public void catBoostExportMatchesCatBoostProbabilities() throws Exception {
+        File dir = new File(CATBOOST_FIXTURE_DIR);
+        assumeTrue("No CatBoost fixture in " + dir + " (app/src/ai_models/make_parity_fixture.py)", dir.isDirectory());
+        File onnx = new File(dir, "fixture_model.onnx");
+        File json = new File(dir, "fixture_model.json");
+        File expectedCsv = new File(dir, "expected.csv");
+        assertTrue("Incomplete CatBoost fixture in " + dir, onnx.isFile() && json.isFile() && expectedCsv.isFile());
+
+        ParkinsonOnnxPredictor.ModelType type = ParkinsonOnnxPredictor.ModelType.VOICE;
+        List<float[]> rows = new ArrayList<>();
+        List<Double> expected = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(expectedCsv), StandardCharsets.UTF_8))) {
+            String line = in.readLine(); // заголовок: признаки в порядке модели и probability
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] cells = line.split(",");
+                assertEquals(line, type.plan.size() + 1, cells.length);
+                float[] row = new float[type.plan.size()];
+                for (int f = 0; f < row.length; f++) {
+                    row[f] = Float.parseFloat(cells[f]);
+                }
+                rows.add(row);
+                expected.add(Double.parseDouble(cells[row.length]));
+            }
+        }
+        assertTrue("No rows in " + expectedCsv, !rows.isEmpty());
+
+        ParkinsonPredictor reference = new ParkinsonOnnxPredictor(onnx, type, PredictorConfig.DEFAULT);
+        ParkinsonPredictor trees;
+        try (InputStream in = new FileInputStream(json)) {
+            trees = new CatBoostTreePredictor(in, type);
+        }
+        try {
+            float[][] batch = rows.toArray(new float[0][]);
+            double[] onnxBatch = reference.predictBatch(batch);
+            double[] treeBatch = trees.predictBatch(batch);
+            for (int r = 0; r < batch.length; r++) {
+                assertEquals("ONNX row " + r, expected.get(r), onnxBatch[r], TOLERANCE);
+                assertEquals("Java trees row " + r, expected.get(r), treeBatch[r], TOLERANCE);
+            }
+        } finally {
+            reference.close();
+            trees.close();
+        }
+    }
+
+    private void assertFixtureParity(ParkinsonOnnxPredictor.ModelType type, long seed) throws Exception {
+        TreeEnsembleFixture fixture = new TreeEnsembleFixture(type.plan.size(), 40, 6, seed);
+        File onnx = folder.newFile(type.assetName);
+        try (FileOutputStream out = new FileOutputStream(onnx)) {
+            out.write(fixture.toOnnx());
+        }
+        byte[] json = fixture.toCatBoostJson().getBytes(StandardCharsets.UTF_8);
+        assertParity(type, onnx, new ByteArrayInputStream(json), fixture.rows(64, seed));
+    }
+
+    private void assertExportedParity(ParkinsonOnnxPredictor.ModelType type) throws Exception {
+        File onnx = new File(MODEL_DIR, type.assetName);
+        File json = new File(MODEL_DIR, type.jsonAssetName);
+        assumeTrue("No exported " + type + " model in " + MODEL_DIR, onnx.isFile() && json.isFile());
+        float[][] rows = new TreeEnsembleFixture(type.plan.size(), 1, 1, 0L).rows(64, 3L);
+        // Масштаб признаков реальной модели: строка i — типичные значения с разбросом
+        for (int r = 0; r < rows.length; r++) {
+            for (int f = 0; f < rows[r].length; f++) {
+                rows[r][f] = typicalValue(type, f) * (1f + 0.5f * rows[r][f]);
+            }
+        }
+        try (InputStream in = new FileInputStream(json)) {
+            assertParity(type, onnx, in, rows);
+        }
+    }
+
+    private static void assertParity(ParkinsonOnnxPredictor.ModelType type, File onnx, InputStream json,
+                                     float[][] rows) throws IOException, ai.onnxruntime.OrtException {
+        ParkinsonPredictor reference = new ParkinsonOnnxPredictor(onnx, type, PredictorConfig.DEFAULT);
+        ParkinsonPredictor trees = new CatBoostTreePredictor(json, type);
+        try {
+            double[] expected = reference.predictBatch(rows);
+            double[] actual = trees.predictBatch(rows);
+            for (int r = 0; r < rows.length; r++) {
+                assertTrue(type + " row " + r + ": ONNX failed", expected[r] >= 0);
+                assertEquals(type + " row " + r, expected[r], actual[r], TOLERANCE);
+                assertEquals(type + " single row " + r, expected[r], trees.predict(rows[r]), TOLERANCE);
+            }
+        } finally {
+            reference.close();
+            trees.close();
+        }
+    }
+
+    /** Порядок величины признаков в {@link ParkinsonOnnxPredictor.ModelType#featureOrder}. */
+    private static float typicalValue(ParkinsonOnnxPredictor.ModelType type, int feature) {
+        float[] voice = {1544f, 612f, 0.034f, 0.0031f, 48.7f, 21.3f, 19.8f};
+        float[] speech = {0.0052f, 0.21f, 0.0287f, 0.0154f, 20.4f, 4.1e-5f, 0.0029f, 0.31f};
+        return (type == ParkinsonOnnxPredictor.ModelType.VOICE ? voice : speech)[feature];
+    }
+}
@@ -0,0 +1,66 @@
+package com.parkinsons_disease_identifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ParkinsonOnnxPredictor} читает вероятности из выходов разной формы — [N, 2], [N] и [N, C]
+ * с символьным числом столбцов — и в одиночном, и в пакетном предсказании.
+ */
+public class OnnxOutputShapeTest {
+
+    private static final double TOLERANCE = 1e-5;
+    private static final ParkinsonOnnxPredictor.ModelType TYPE = ParkinsonOnnxPredictor.ModelType.VOICE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTwoColumnProbabilities() throws Exception {
+        assertPredicts(TreeEnsembleFixture.Output.PROBABILITIES);
+    }
+
+    @Test
+    public void readsRankOneProbability() throws Exception {
+        assertPredicts(TreeEnsembleFixture.Output.PROBABILITY_VECTOR);
+    }
+
+    @Test
+    public void readsSymbolicColumnCount() throws Exception {
+        assertPredicts(TreeEnsembleFixture.Output.DYNAMIC_COLUMNS);
+    }
+
+    private void assertPredicts(TreeEnsembleFixture.Output output) throws Exception {
+        TreeEnsembleFixture fixture = new TreeEnsembleFixture(TYPE.plan.size(), 20, 4, 21L);
+        File onnx = folder.newFile(output + ".onnx");
+        try (FileOutputStream out = new FileOutputStream(onnx)) {
+            out.write(fixture.toOnnx(output));
+        }
+        float[][] rows = fixture.rows(16, 5L);
+        ParkinsonPredictor predictor = new ParkinsonOnnxPredictor(onnx, TYPE, PredictorConfig.DEFAULT);
+        ParkinsonPredictor trees = new CatBoostTreePredictor(
+                new ByteArrayInputStream(fixture.toCatBoostJson().getBytes(StandardCharsets.UTF_8)), TYPE);
+        try {
+            double[] batch = predictor.predictBatch(rows);
+            for (int r = 0; r < rows.length; r++) {
+                double expected = trees.predict(rows[r]);
+                double single = predictor.predict(rows[r]);
+                assertTrue(output + " row " + r + ": single predict failed", single >= 0);
+                assertEquals(output + " row " + r, expected, single, TOLERANCE);
+                assertEquals(output + " batch row " + r, expected, batch[r], TOLERANCE);
+            }
+        } finally {
+            predictor.close();
+            trees.close();
+        }
+    }
+}
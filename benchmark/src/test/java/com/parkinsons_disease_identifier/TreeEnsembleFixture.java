@@ -0,0 +1,321 @@
+package com.parkinsons_disease_identifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Случайная модель из симметричных деревьев CatBoost в двух форматах: JSON-выгрузка
+ * (как model.save_model(format="json")) и эквивалентный ONNX-граф — TreeEnsembleRegressor → Mul(scale) →
+ * Add(bias) → Sigmoid → [1 − p, p], который считает независимая реализация деревьев ONNX Runtime.
+ * Пороги берутся из сетки значений признаков, поэтому строки из {@link #rows} попадают и точно на границы.
+ */
+final class TreeEnsembleFixture {
+
+    /** Форма выхода ONNX-графа. */
+    enum Output {
+        /** probabilities: float [N, 2] — как CatBoost с удалённым ZipMap. */
+        PROBABILITIES,
+        /** probability: float [N] — только вероятность класса 1. */
+        PROBABILITY_VECTOR,
+        /** probabilities: float [N, C] — число столбцов в метаданных символьное. */
+        DYNAMIC_COLUMNS
+    }
+
+    final int featureCount;
+    final int[][] splitFeature;
+    final float[][] splitBorder;
+    final double[][] leafValues;
+    final double scale;
+    final double bias;
+
+    TreeEnsembleFixture(int featureCount, int trees, int maxDepth, long seed) {
+        Random random = new Random(seed);
+        this.featureCount = featureCount;
+        splitFeature = new int[trees][];
+        splitBorder = new float[trees][];
+        leafValues = new double[trees][];
+        for (int t = 0; t < trees; t++) {
+            int depth = 1 + random.nextInt(maxDepth);
+            splitFeature[t] = new int[depth];
+            splitBorder[t] = new float[depth];
+            leafValues[t] = new double[1 << depth];
+            for (int d = 0; d < depth; d++) {
+                splitFeature[t][d] = random.nextInt(featureCount);
+                splitBorder[t][d] = grid(random.nextInt(20));
+            }
+            for (int l = 0; l < leafValues[t].length; l++) {
+                leafValues[t][l] = random.nextGaussian() * 0.3;
+            }
+        }
+        scale = 0.5 + random.nextDouble();
+        bias = random.nextGaussian() * 0.2;
+    }
+
+    private static float grid(int step) {
+        return -1f + 0.1f * step;
+    }
+
+    /** Строки признаков: случайные значения и значения точно на сетке порогов. */
+    float[][] rows(int count, long seed) {
+        Random random = new Random(seed);
+        float[][] rows = new float[count][featureCount];
+        for (int r = 0; r < count; r++) {
+            for (int f = 0; f < featureCount; f++) {
+                rows[r][f] = r % 2 == 0 ? random.nextFloat() * 2.4f - 1.2f : grid(random.nextInt(20));
+            }
+        }
+        return rows;
+    }
+
+    String toCatBoostJson() {
+        StringBuilder json = new StringBuilder("{\"model_info\":{},\"features_info\":{\"float_features\":[");
+        for (int f = 0; f < featureCount; f++) {
+            json.append(f > 0 ? "," : "").append("{\"feature_index\":").append(f)
+                    .append(",\"flat_feature_index\":").append(f).append(",\"borders\":[]}");
+        }
+        json.append("]},\"oblivious_trees\":[");
+        for (int t = 0; t < splitFeature.length; t++) {
+            json.append(t > 0 ? "," : "").append("{\"leaf_values\":[");
+            for (int l = 0; l < leafValues[t].length; l++) {
+                json.append(l > 0 ? "," : "").append(String.format(Locale.ROOT, "%.17g", leafValues[t][l]));
+            }
+            json.append("],\"leaf_weights\":[],\"splits\":[");
+            for (int d = 0; d < splitFeature[t].length; d++) {
+                json.append(d > 0 ? "," : "").append("{\"border\":").append(splitBorder[t][d])
+                        .append(",\"float_feature_index\":").append(splitFeature[t][d])
+                        .append(",\"split_index\":0,\"split_type\":\"FloatFeature\"}");
+            }
+            json.append("]}");
+        }
+        json.append("],\"scale_and_bias\":[").append(scale).append(",[").append(bias).append("]]}");
+        return json.toString();
+    }
+
+    byte[] toOnnx() {
+        return toOnnx(Output.PROBABILITIES);
+    }
+
+    byte[] toOnnx(Output output) {
+        // Каждое симметричное дерево разворачивается в полное двоичное: на уровне d проверяется сплит d,
+        // ветка «x > border» даёт бит d индекса листа (как в CatBoost)
+        int nodeCount = 0;
+        for (double[] leaves : leafValues) {
+            nodeCount += 2 * leaves.length - 1;
+        }
+        long[] treeIds = new long[nodeCount];
+        long[] nodeIds = new long[nodeCount];
+        long[] featureIds = new long[nodeCount];
+        String[] modes = new String[nodeCount];
+        float[] values = new float[nodeCount];
+        long[] trueIds = new long[nodeCount];
+        long[] falseIds = new long[nodeCount];
+        int leafTotal = 0;
+        for (double[] leaves : leafValues) {
+            leafTotal += leaves.length;
+        }
+        long[] targetTree = new long[leafTotal];
+        long[] targetNode = new long[leafTotal];
+        long[] targetIds = new long[leafTotal];
+        float[] targetWeights = new float[leafTotal];
+        int n = 0;
+        int leafN = 0;
+        for (int t = 0; t < splitFeature.length; t++) {
+            int depth = splitFeature[t].length;
+            int inner = (1 << depth) - 1;
+            for (int node = 0; node < 2 * inner + 1; node++) {
+                treeIds[n] = t;
+                nodeIds[n] = node;
+                if (node < inner) {
+                    int level = 31 - Integer.numberOfLeadingZeros(node + 1);
+                    featureIds[n] = splitFeature[t][level];
+                    values[n] = splitBorder[t][level];
+                    modes[n] = "BRANCH_GT";
+                    trueIds[n] = 2 * node + 2;
+                    falseIds[n] = 2 * node + 1;
+                } else {
+                    modes[n] = "LEAF";
+                    // Путь от корня: правый потомок (2k + 2) — условие выполнено, бит уровня равен 1
+                    int leafIndex = 0;
+                    int k = node;
+                    for (int level = depth - 1; level >= 0; level--) {
+                        int parent = (k - 1) / 2;
+                        if (k == 2 * parent + 2) {
+                            leafIndex |= 1 << level;
+                        }
+                        k = parent;
+                    }
+                    targetTree[leafN] = t;
+                    targetNode[leafN] = node;
+                    targetWeights[leafN] = (float) leafValues[t][leafIndex];
+                    leafN++;
+                }
+                n++;
+            }
+        }
+
+        Proto trees = new Proto()
+                .string(1, "X").string(2, "raw").string(3, "trees").string(4, "TreeEnsembleRegressor")
+                .string(7, "ai.onnx.ml")
+                .message(5, attribute("n_targets").int64(3, 1).int64(20, 2))
+                .message(5, attribute("aggregate_function").bytes(4, "SUM").int64(20, 3))
+                .message(5, attribute("post_transform").bytes(4, "NONE").int64(20, 3))
+                .message(5, ints("nodes_treeids", treeIds))
+                .message(5, ints("nodes_nodeids", nodeIds))
+                .message(5, ints("nodes_featureids", featureIds))
+                .message(5, strings("nodes_modes", modes))
+                .message(5, floats("nodes_values", values))
+                .message(5, ints("nodes_truenodeids", trueIds))
+                .message(5, ints("nodes_falsenodeids", falseIds))
+                .message(5, ints("target_treeids", targetTree))
+                .message(5, ints("target_nodeids", targetNode))
+                .message(5, ints("target_ids", targetIds))
+                .message(5, floats("target_weights", targetWeights));
+
+        Proto graph = new Proto()
+                .message(1, trees)
+                .message(1, node("Mul", "scaled", "raw", "scale"))
+                .message(1, node("Add", "logit", "scaled", "bias"))
+                .message(1, node("Sigmoid", "p", "logit"))
+                .message(1, node("Sub", "q", "one", "p"))
+                .message(1, node("Concat", "probabilities", "q", "p")
+                        .message(5, attribute("axis").int64(3, 1).int64(20, 2)))
+                .message(1, node("Squeeze", "probability", "p", "axes"))
+                .string(2, "catboost_fixture")
+                .message(5, scalar("scale", (float) scale))
+                .message(5, scalar("bias", (float) bias))
+                .message(5, scalar("one", 1f))
+                .message(5, new Proto().int64(1, 1).int64(2, 7).int64(7, 1).string(8, "axes"))
+                .message(11, tensorInfo("X", featureCount));
+        if (output == Output.PROBABILITY_VECTOR) {
+            graph.message(12, tensorInfo("probability", new Proto().message(1, new Proto().string(2, "N"))));
+        } else if (output == Output.DYNAMIC_COLUMNS) {
+            // Форма для Reshape объявлена ещё и входом графа: ORT не считает её константой и не выводит
+            // число столбцов, так что в метаданных выхода остаётся символьная размерность
+            graph.message(1, node("Reshape", "reshaped", "probabilities", "shape"))
+                    .message(5, new Proto().int64(1, 2).int64(2, 7).int64(7, -1).int64(7, 2).string(8, "shape"))
+                    .message(11, tensorInfo("shape", 7, new Proto().message(1, new Proto().int64(1, 2))))
+                    .message(12, tensorInfo("reshaped", new Proto()
+                            .message(1, new Proto().string(2, "N"))
+                            .message(1, new Proto().string(2, "C"))));
+        } else {
+            graph.message(12, tensorInfo("probabilities", 2));
+        }
+        Proto model = new Proto()
+                .int64(1, 8)
+                .message(8, new Proto().string(1, "").int64(2, 13))
+                .message(8, new Proto().string(1, "ai.onnx.ml").int64(2, 3))
+                .string(2, "TreeEnsembleFixture")
+                .message(7, graph);
+        return model.toByteArray();
+    }
+
+    private static Proto node(String op, String output, String... inputs) {
+        Proto node = new Proto();
+        for (String input : inputs) {
+            node.string(1, input);
+        }
+        return node.string(2, output).string(3, output).string(4, op);
+    }
+
+    private static Proto attribute(String name) {
+        return new Proto().string(1, name);
+    }
+
+    private static Proto ints(String name, long[] values) {
+        Proto attr = attribute(name);
+        for (long v : values) {
+            attr.int64(8, v);
+        }
+        return attr.int64(20, 7);
+    }
+
+    private static Proto floats(String name, float[] values) {
+        Proto attr = attribute(name);
+        for (float v : values) {
+            attr.float32(7, v);
+        }
+        return attr.int64(20, 6);
+    }
+
+    private static Proto strings(String name, String[] values) {
+        Proto attr = attribute(name);
+        for (String v : values) {
+            attr.bytes(9, v);
+        }
+        return attr.int64(20, 8);
+    }
+
+    /** Скаляр float формы [1] (broadcast с [N, 1]). */
+    private static Proto scalar(String name, float value) {
+        return new Proto().int64(1, 1).int64(2, 1).float32(4, value).string(8, name);
+    }
+
+    /** Тензор float [N, columns] с символьной размерностью батча. */
+    private static Proto tensorInfo(String name, int columns) {
+        return tensorInfo(name, new Proto()
+                .message(1, new Proto().string(2, "N"))
+                .message(1, new Proto().int64(1, columns)));
+    }
+
+    private static Proto tensorInfo(String name, Proto shape) {
+        return tensorInfo(name, 1, shape);
+    }
+
+    private static Proto tensorInfo(String name, int elementType, Proto shape) {
+        Proto tensor = new Proto().int64(1, elementType).message(2, shape);
+        return new Proto().string(1, name).message(2, new Proto().message(1, tensor));
+    }
+
+    /** Минимальная запись protobuf: только используемые типы полей, повторяющиеся поля без упаковки. */
+    private static final class Proto {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Proto int64(int field, long value) {
+            varint((long) field << 3);
+            varint(value);
+            return this;
+        }
+
+        Proto float32(int field, float value) {
+            varint((long) field << 3 | 5);
+            int bits = Float.floatToIntBits(value);
+            for (int i = 0; i < 4; i++) {
+                out.write(bits >>> (8 * i));
+            }
+            return this;
+        }
+
+        Proto string(int field, String value) {
+            return bytes(field, value);
+        }
+
+        Proto bytes(int field, String value) {
+            return raw(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Proto message(int field, Proto message) {
+            return raw(field, message.toByteArray());
+        }
+
+        private Proto raw(int field, byte[] data) {
+            varint((long) field << 3 | 2);
+            varint(data.length);
+            out.write(data, 0, data.length);
+            return this;
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}